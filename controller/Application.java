@@ -1,15 +1,25 @@
 package controller;
 
+import model.BlackboardMonitor;
+import model.IngestMonitor;
 import view.ApplicationGUI;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.swing.SwingUtilities;
+import java.lang.management.ManagementFactory;
 
 
 /**
  * This class serves as the starting point for the programming logic flow
  * for the Attendance App software developed.
- * It instantiates an object of the ApplicationGUI class 
+ * Without arguments it instantiates an object of the ApplicationGUI class 
  * which generates the principal frame window for the app.
+ * With arguments it runs headless as a BatchJob, merging a roster and attendance files
+ * into an output file without loading any Swing or AWT classes.
+ * In both modes the blackboard state and ingest statistics are published as JMX MBeans
+ * under the attendance domain, for watching with tools such as jconsole.
  * 
  * The following Software Design Patterns have been used with their respective classes mentioned:
  * 1. Observer - Blackboard, DisplayPanel
@@ -23,9 +33,38 @@ public class Application {
     
     /** 
      * Starting point of Attendance app software programming logic flow.
-     * @param args Stores input data file path passed as command line argument
+     * @param args Roster file, attendance directory or glob and output file for a headless run,
+     *             or none to open the GUI
      */
     public static void main(String[] args) {
+        registerMBeans();
+        if (args.length > 0) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchJob.run(args));
+        }
+        launchGUI();
+    }
+
+    
+    /** 
+     * Registers the BlackboardMonitor and IngestMonitor MBeans with the platform MBean server.
+     * The app runs on without them if they cannot be registered.
+     */
+    private static void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new BlackboardMonitor(), new ObjectName(BlackboardMonitor.OBJECT_NAME));
+            server.registerMBean(new IngestMonitor(), new ObjectName(IngestMonitor.OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Could not register MBeans: " + e.getMessage());
+        }
+    }
+
+    
+    /** 
+     * Opens the principal frame window on the Swing event thread
+     */
+    private static void launchGUI() {
         SwingUtilities.invokeLater(() -> {
             new ApplicationGUI("Assignment 4");
         });
@@ -0,0 +1,237 @@
+package controller;
+
+import model.Blackboard;
+import model.CsvExporter;
+import model.ParseAttendance;
+import model.ParseRoster;
+import model.MetricsRegistry;
+import model.ParsedAttendance;
+import model.RosterReport;
+import model.SessionExtras;
+import model.Student;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class runs the attendance pipeline without a display, for scheduled batch jobs.
+ * It parses a roster file and a set of dated attendance files with the same
+ * ParseRoster and ParseAttendance classes used by the GUI, merges them on the blackboard
+ * and writes the resulting table with CsvExporter.
+ * No Swing or AWT class is ever loaded.
+ *
+ * Attendance files are given either as a directory, whose files are all read,
+ * or as a glob pattern on the file name such as data/2021*.csv.
+ * The output is gzip compressed when its name ends with .gz.
+ * The time spent in each stage is printed when the job finishes,
+ * and the detailed runtime metrics can be saved to a CSV file with --metrics.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class BatchJob {
+
+    private static final String USAGE =
+        "Usage: Application <roster.csv> <attendance directory | glob> <output.csv[.gz]> [--threads N] [--extras-limit N] [--metrics metrics.csv]";
+
+    private final File rosterFile;
+    private final String attendanceSource;
+    private final File outputFile;
+    private int parallelism;
+    private int extrasLimit;
+    private File metricsFile;
+
+    private final PrintStream out;
+    private final List<String> stages;
+
+    public BatchJob(File rosterFile, String attendanceSource, File outputFile) {
+        this.rosterFile = rosterFile;
+        this.attendanceSource = attendanceSource;
+        this.outputFile = outputFile;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.extrasLimit = SessionExtras.DEFAULT_LIMIT;
+        this.out = System.out;
+        this.stages = new ArrayList<String>();
+    }
+
+
+    /**
+     * Runs a batch job from command line arguments and returns the process exit code
+     * @param args Roster file, attendance directory or glob, output file and options
+     */
+    public static int run(String[] args) {
+        List<String> paths = new ArrayList<String>();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int extrasLimit = SessionExtras.DEFAULT_LIMIT;
+        File metricsFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--threads"))
+                    parallelism = Integer.parseInt(args[++i]);
+                else if (args[i].equals("--extras-limit"))
+                    extrasLimit = Integer.parseInt(args[++i]);
+                else if (args[i].equals("--metrics"))
+                    metricsFile = new File(args[++i]);
+                else
+                    paths.add(args[i]);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (paths.size() != 3) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        BatchJob job = new BatchJob(new File(paths.get(0)), paths.get(1), new File(paths.get(2)));
+        job.setParallelism(parallelism);
+        job.setExtrasLimit(extrasLimit);
+        job.setMetricsFile(metricsFile);
+        try {
+            job.execute();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Batch job failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+
+    /**
+     * Sets number of attendance files parsed concurrently
+     * @param parallelism Number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+
+    /**
+     * Sets the most non-rostered attendees kept per date, 0 keeps only their count
+     * @param extrasLimit Maximum number of attendees kept
+     */
+    public void setExtrasLimit(int extrasLimit) {
+        this.extrasLimit = extrasLimit;
+    }
+
+
+    /**
+     * Sets the file the runtime metrics are saved to when the job finishes
+     * @param metricsFile Metrics file, or null to not save them
+     */
+    public void setMetricsFile(File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+
+    /**
+     * Parses the roster and attendance files, writes the merged table
+     * and prints the time spent in each stage
+     */
+    public void execute() throws IOException {
+        Blackboard blackboard = Blackboard.getInstance();
+        long jobStart = System.nanoTime();
+
+        long start = System.nanoTime();
+        ParseRoster rosterParser = new ParseRoster();
+        List<Student> students = rosterParser.parseRoster(rosterFile);
+        rosterParser.commit(students);
+        RosterReport report = rosterParser.getReport();
+        stage("roster", start, students.size() + " student(s) from " + rosterFile.getName() + ", " + report.getSummary());
+
+        start = System.nanoTime();
+        File[] files = listAttendanceFiles(attendanceSource);
+        ParseAttendance attendanceParser = new ParseAttendance(parallelism);
+        attendanceParser.setExtrasLimit(extrasLimit);
+        Map<Date, File> selected = attendanceParser.selectFiles(files);
+        stage("select", start, selected.size() + " dated file(s) of " + files.length + " matched");
+
+        start = System.nanoTime();
+        List<ParsedAttendance> parsed = attendanceParser.parseFiles(selected);
+        long rows = 0;
+        for (ParsedAttendance result : parsed)
+            rows += result.getRowCount();
+        stage("parse", start, rows + " row(s) in " + parsed.size() + " file(s), " + parallelism + " thread(s)");
+
+        start = System.nanoTime();
+        blackboard.beginBatch();
+        try {
+            for (ParsedAttendance result : parsed)
+                attendanceParser.commit(result);
+        } finally {
+            blackboard.endBatch();
+        }
+        int extras = 0;
+        for (SessionExtras sessionExtras : blackboard.getSessionExtras())
+            extras += sessionExtras.getAttendeeCount();
+        stage("merge", start, blackboard.getAttendanceDateCount() + " date(s), "
+            + extras + " non-rostered attendance(s)");
+
+        start = System.nanoTime();
+        CsvExporter exporter = new CsvExporter();
+        exporter.setCompressed(outputFile.getName().endsWith(".gz"));
+        long written = exporter.export(outputFile);
+        stage("export", start, written + " row(s) to " + outputFile.getPath() + ", " + outputFile.length() + " bytes");
+
+        stage("total", jobStart, "");
+        for (RosterReport.Duplicate duplicate : report.getDuplicates())
+            out.println(duplicate);
+        for (File file : attendanceParser.getSkippedFiles())
+            out.println("Skipped file without a date: " + file.getName());
+        for (String line : stages)
+            out.println(line);
+        if (metricsFile != null) {
+            MetricsRegistry.getInstance().dump(metricsFile);
+            out.println("Metrics written to " + metricsFile.getPath());
+        }
+    }
+
+
+    /**
+     * Returns the attendance files in a directory, or the files matching a glob pattern
+     * @param source Directory, or a path whose file name is a glob pattern
+     */
+    static File[] listAttendanceFiles(String source) throws IOException {
+        Path path = Paths.get(source);
+        Path dir = path;
+        String glob = "*";
+        if (!Files.isDirectory(path)) {
+            dir = path.getParent() == null ? Paths.get(".") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+        if (!Files.isDirectory(dir))
+            throw new IOException("Attendance directory not found: " + dir);
+
+        List<File> files = new ArrayList<File>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : stream)
+                if (Files.isRegularFile(file))
+                    files.add(file.toFile());
+        }
+        if (files.isEmpty())
+            throw new IOException("No attendance files match " + source);
+        return files.toArray(new File[0]);
+    }
+
+
+    /**
+     * Records the time spent in a stage
+     * @param name Stage name
+     * @param start Start time of the stage in nanoseconds
+     * @param detail What the stage processed
+     */
+    private void stage(String name, long start, String detail) {
+        stages.add(String.format("%-8s %10.1f ms  %s", name, (System.nanoTime() - start) / 1e6, detail));
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the JMH benchmarks with the defaults used to compare releases:
+ * allocation profiling with the GC profiler, as with -prof gc, and results written
+ * as CSV to benchmark-results.csv, as with -rf csv -rff benchmark-results.csv.
+ * Any standard JMH option can be given and takes precedence, for example
+ * -p students=1000 to run one roster size, or -rf json -rff results.json.
+ *
+ * Run with: java -jar jmh/target/benchmarks.jar [JMH options] [benchmark regexp]
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class BenchmarkRunner {
+
+    private static final String RESULT_FILE = "benchmark-results.csv";
+
+
+    /**
+     * Runs the benchmarks selected by the command line, or lists them or the options when asked
+     * @param args JMH command line options
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+                || options.shouldListProfilers() || options.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (!options.getJvmArgsAppend().hasValue())
+            builder.jvmArgsAppend("-Djava.awt.headless=true");
+        if (options.getProfilers().isEmpty())
+            builder.addProfiler(GCProfiler.class);
+        if (!options.getResultFormat().hasValue())
+            builder.resultFormat(ResultFormatType.CSV);
+        if (!options.getResult().hasValue())
+            builder.result(RESULT_FILE);
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import model.AttendanceMatrix;
+import model.PresenceBitmap;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class benchmarks the blackboard operations run for every row or query:
+ * 1. hasAsurite - ASURITE lookups through Blackboard.hasAsurite, reported per lookup
+ * 2. merge - adding minutes for every student into a detached column through AttendanceMatrix.merge
+ * 3. absentOnAtLeast - students absent on at least 3 of the last 10 dates, from presence bitmaps
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BlackboardBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(RosterState.LOOKUPS)
+    public void hasAsurite(RosterState roster, Blackhole blackhole) {
+        for (String asurite : roster.asurites)
+            blackhole.consume(roster.blackboard.hasAsurite(asurite));
+    }
+
+
+    @Benchmark
+    public void merge(RosterState roster, Blackhole blackhole) {
+        int[] column = roster.column;
+        for (int row : roster.rows)
+            AttendanceMatrix.merge(column, row, 1);
+        blackhole.consume(column[roster.rows[0]]);
+    }
+
+
+    @Benchmark
+    public PresenceBitmap absentOnAtLeast(RosterState roster) {
+        return roster.snapshot.absentOnAtLeast(roster.recent, 3, 30);
+    }
+}
@@ -0,0 +1,264 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class generates synthetic roster and attendance files for load testing.
+ * Files are written in the same formats that ParseRoster and ParseAttendance read:
+ * 1. roster.csv - ID, First Name, Last Name, ASURITE per row
+ * 2. yyyyMMdd attendance.csv - ASURITE, Minutes per row, one file per weekday session
+ *
+ * Like the real attendance exports, a student who reconnects shows up on several
+ * scattered rows whose minutes add up, and people who are not on the roster also attend.
+ * The same seed always produces the same files.
+ *
+ * Run with: java -cp jmh/target/benchmarks.jar benchmark.DatasetGenerator --out dir [--students 100000] [--dates 300]
+ *     [--attend-rate 0.8] [--duplicate-rate 0.1] [--unknown-rate 0.05]
+ *     [--start 20210104] [--seed 1]
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class DatasetGenerator {
+
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_MINUTES = 90;
+
+    private static final String[] FIRST_NAMES = {"Mukul", "Aniket", "Krithish", "Sarvesh", "Shrinkhala",
+        "Priya", "Rahul", "Emily", "Carlos", "Mei", "Omar", "Sofia", "Daniel", "Aisha", "Lucas", "Hana"};
+    private static final String[] LAST_NAMES = {"Mahadik", "Agrawal", "Goli", "Kapse", "Kayastha",
+        "Sharma", "Patel", "Garcia", "Nguyen", "Smith", "Kim", "Lopez", "Chen", "Brown", "Ali", "Singh"};
+
+    private int students = 100_000;
+    private int dates = 300;
+    private double attendRate = 0.8;
+    private double duplicateRate = 0.1;
+    private double unknownRate = 0.05;
+    private LocalDate start = LocalDate.of(2021, 1, 4);
+    private long seed = 1;
+
+
+    /**
+     * Generates a dataset as described by the command line options
+     * @param args Command line options
+     */
+    public static void main(String[] args) throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        File out = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--out": out = new File(value); break;
+                case "--students": generator.setStudents(Integer.parseInt(value)); break;
+                case "--dates": generator.setDates(Integer.parseInt(value)); break;
+                case "--attend-rate": generator.setAttendRate(Double.parseDouble(value)); break;
+                case "--duplicate-rate": generator.setDuplicateRate(Double.parseDouble(value)); break;
+                case "--unknown-rate": generator.setUnknownRate(Double.parseDouble(value)); break;
+                case "--start": generator.setStart(LocalDate.parse(value, FILE_DATE)); break;
+                case "--seed": generator.setSeed(Long.parseLong(value)); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (out == null)
+            throw new IllegalArgumentException("Missing option: --out dir");
+
+        long startTime = System.nanoTime();
+        generator.generate(out);
+        System.out.println("Generated " + generator.students + " students and " + generator.dates
+            + " sessions in " + out.getAbsolutePath() + " in "
+            + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+
+    /**
+     * Sets number of students in the roster
+     * @param students Number of students
+     */
+    public void setStudents(int students) {
+        this.students = students;
+    }
+
+
+    /**
+     * Sets number of attendance sessions
+     * @param dates Number of sessions
+     */
+    public void setDates(int dates) {
+        this.dates = dates;
+    }
+
+
+    /**
+     * Sets the fraction of rostered students attending each session
+     * @param attendRate Fraction between 0 and 1
+     */
+    public void setAttendRate(double attendRate) {
+        this.attendRate = attendRate;
+    }
+
+
+    /**
+     * Sets the chance that an attendee has one more row, applied repeatedly per attendee
+     * @param duplicateRate Fraction from 0 up to but not including 1, since 1 would never stop adding rows
+     */
+    public void setDuplicateRate(double duplicateRate) {
+        if (!(duplicateRate >= 0 && duplicateRate < 1))
+            throw new IllegalArgumentException("duplicate rate must be in [0, 1): " + duplicateRate);
+        this.duplicateRate = duplicateRate;
+    }
+
+
+    /**
+     * Sets the number of non-rostered attendees per session as a fraction of the roster
+     * @param unknownRate Fraction of the roster size
+     */
+    public void setUnknownRate(double unknownRate) {
+        this.unknownRate = unknownRate;
+    }
+
+
+    /**
+     * Sets the date of the first session; sessions fall on consecutive weekdays
+     * @param start Date of the first session
+     */
+    public void setStart(LocalDate start) {
+        this.start = start;
+    }
+
+
+    /**
+     * Sets the random seed
+     * @param seed Seed of the random generator
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+
+    /**
+     * Writes the roster and every attendance session into a directory
+     * @param dir Directory to be written to
+     */
+    public void generate(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Cannot create directory " + dir);
+
+        writeRoster(new File(dir, "roster.csv"));
+
+        Random random = new Random(seed);
+        LocalDate date = start;
+        for (int d = 0; d < dates; d++) {
+            while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY)
+                date = date.plusDays(1);
+            writeSession(new File(dir, date.format(FILE_DATE) + " attendance.csv"), random);
+            date = date.plusDays(1);
+        }
+    }
+
+
+    /**
+     * Writes the roster file
+     * @param file File to be written
+     */
+    public void writeRoster(File file) throws IOException {
+        Random random = new Random(seed);
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < students; i++) {
+                writer.write(Long.toString(1_000_000_000L + i));
+                writer.write(',');
+                writer.write(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                writer.write(',');
+                writer.write(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                writer.write(',');
+                writer.write(asurite(i));
+                writer.write('\n');
+            }
+        }
+    }
+
+
+    /**
+     * Writes one attendance session in random row order, so repeated rows
+     * for the same attendee are scattered through the file
+     * @param file File to be written
+     * @param random Source of attendance rows
+     */
+    public void writeSession(File file, Random random) throws IOException {
+        int unknown = (int) (students * unknownRate);
+        int[] attendees = new int[students + unknown];
+        int count = 0;
+        for (int i = 0; i < students; i++)
+            if (random.nextDouble() < attendRate)
+                attendees[count++] = i;
+        for (int i = 0; i < unknown; i++)
+            attendees[count++] = -1 - random.nextInt(Math.max(1, unknown * 4));
+
+        int attendeeCount = count;
+        for (int i = 0; i < attendeeCount; i++) {
+            while (random.nextDouble() < duplicateRate) {
+                if (count == attendees.length)
+                    attendees = Arrays.copyOf(attendees, count * 2);
+                attendees[count++] = attendees[i];
+            }
+        }
+
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = attendees[i];
+            attendees[i] = attendees[j];
+            attendees[j] = swap;
+        }
+
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < count; i++) {
+                String asurite = attendees[i] >= 0 ? asurite(attendees[i]) : "guest" + (-1 - attendees[i]);
+                writeRow(writer, asurite, random);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the synthetic ASURITE of a student
+     * @param ordinal Roster ordinal of the student
+     */
+    public static String asurite(int ordinal) {
+        return "stud" + ordinal;
+    }
+
+
+    /**
+     * Writes one attendance row
+     * @param writer Writer to be written to
+     * @param asurite Asurite of the attendee
+     * @param random Source of the minutes
+     */
+    private static void writeRow(Writer writer, String asurite, Random random) throws IOException {
+        writer.write(asurite);
+        writer.write(',');
+        writer.write(Integer.toString(1 + random.nextInt(MAX_MINUTES)));
+        writer.write('\n');
+    }
+
+
+    /**
+     * Opens a buffered UTF-8 writer on a file
+     * @param file File to be written
+     */
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
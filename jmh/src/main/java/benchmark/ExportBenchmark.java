@@ -0,0 +1,60 @@
+package benchmark;
+
+import model.CsvExporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the save path, writing the whole table of the roster and dates with CsvExporter.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ExportBenchmark {
+
+    /**
+     * This class holds the file the table is written to in one trial.
+     */
+    @State(Scope.Benchmark)
+    public static class ExportFile {
+
+        File file;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            file = Files.createTempFile("attendance-bench", ".csv").toFile();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            file.delete();
+        }
+    }
+
+
+    @Benchmark
+    public long export(RosterState roster, ExportFile export) throws IOException {
+        return new CsvExporter().export(export.file);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import model.ParseAttendance;
+import model.ParsedAttendance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks parsing one attendance file for the roster with ParseAttendance.parseFile,
+ * the file written by DatasetGenerator with its default attendance, duplicate and guest rates.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IngestBenchmark {
+
+    /**
+     * This class holds the attendance file and the parser of one trial.
+     */
+    @State(Scope.Benchmark)
+    public static class SessionFile {
+
+        File file;
+        ParseAttendance parser;
+        Date date;
+
+        @Setup(Level.Trial)
+        public void write(RosterState roster) throws IOException {
+            file = Files.createTempFile("attendance-bench", " attendance.csv").toFile();
+            DatasetGenerator generator = new DatasetGenerator();
+            generator.setStudents(roster.students);
+            generator.writeSession(file, new Random(RosterState.SEED));
+            parser = new ParseAttendance(1);
+            date = new Date();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            file.delete();
+        }
+    }
+
+
+    @Benchmark
+    public ParsedAttendance parseFile(SessionFile session) {
+        return session.parser.parseFile(session.file, session.date);
+    }
+}
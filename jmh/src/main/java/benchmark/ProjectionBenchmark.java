@@ -0,0 +1,42 @@
+package benchmark;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class benchmarks projecting one attendance date into roster order,
+ * into a reused buffer and into the Vector the table model used to build.
+ * The time per student should stay flat as the roster grows,
+ * which shows that the projection scales linearly with the roster.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProjectionBenchmark {
+
+    @Benchmark
+    public void project(RosterState roster, Blackhole blackhole) {
+        int[] buffer = roster.first.project(roster.buffer);
+        blackhole.consume(buffer[buffer.length - 1]);
+    }
+
+
+    @Benchmark
+    public Vector<String> getOrderedAttendance(RosterState roster) {
+        return roster.first.getOrderedAttendance();
+    }
+}
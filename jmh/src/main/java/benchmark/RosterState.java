@@ -0,0 +1,100 @@
+package benchmark;
+
+import model.Attendance;
+import model.AttendanceMatrix;
+import model.Blackboard;
+import model.BlackboardSnapshot;
+import model.Student;
+import model.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This class is the JMH state shared by the benchmarks: the blackboard filled with
+ * a synthetic roster and attendance dates for one combination of roster size and date count.
+ * JMH runs every combination in freshly forked JVMs, so nothing held by the
+ * Blackboard singleton, the JIT or the heap carries over from one combination to the next.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+public class RosterState {
+
+    static final long SEED = 20210204L;
+    static final int LOOKUPS = 1024;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int students;
+
+    @Param({"10", "100"})
+    public int dates;
+
+    Blackboard blackboard;
+    BlackboardSnapshot snapshot;
+    Attendance first;
+    List<Attendance> recent;
+    String[] asurites;
+    int[] rows;
+    int[] column;
+    int[] buffer;
+
+
+    /**
+     * Replaces the blackboard contents with the roster and dates of the parameters,
+     * about 80% of the students attending each date, and picks the lookup keys,
+     * a quarter of which are not on the roster
+     */
+    @Setup(Level.Trial)
+    public void populate() {
+        Random random = new Random(SEED);
+        blackboard = Blackboard.getInstance();
+        blackboard.clearRoster();
+        SymbolTable symbols = new SymbolTable();
+        List<Student> roster = new ArrayList<Student>(students);
+        for (int i = 0; i < students; i++)
+            roster.add(new Student(symbols, new String[] {
+                Integer.toString(1_000_000_000 + i), "First" + i, "Last" + i, DatasetGenerator.asurite(i)}));
+        blackboard.addStudents(roster);
+
+        long day = 24L * 60 * 60 * 1000;
+        for (int d = 0; d < dates; d++) {
+            int[] minutes = AttendanceMatrix.newColumn(students);
+            for (int i = 0; i < students; i++)
+                if (random.nextInt(10) < 8)
+                    minutes[i] = 1 + random.nextInt(90);
+            blackboard.addAttendance(new Date(d * day), minutes);
+        }
+
+        snapshot = blackboard.getSnapshot();
+        first = snapshot.getAttendances().iterator().next();
+        recent = snapshot.getRecentAttendances(10);
+
+        asurites = new String[LOOKUPS];
+        for (int i = 0; i < asurites.length; i++)
+            asurites[i] = random.nextInt(4) == 0 ? "guest" + i : DatasetGenerator.asurite(random.nextInt(students));
+        rows = new int[students];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = random.nextInt(students);
+        buffer = new int[students];
+    }
+
+
+    /**
+     * Starts every iteration with an empty detached column to merge into,
+     * so merged minutes never grow beyond one iteration's worth
+     */
+    @Setup(Level.Iteration)
+    public void resetColumn() {
+        column = AttendanceMatrix.newColumn(students);
+    }
+}
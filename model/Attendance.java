@@ -1,20 +1,17 @@
 package model;
 
 import java.util.Date;
-import java.text.SimpleDateFormat;
 import java.util.Objects;
-import java.util.Map;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Vector;
-import java.util.Comparator;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * This class represents a attendance list maintained by a professor for a class.
  * It maintains datewise attendance data for all different dates as per the attendance files uploaded.
+ * The minutes themselves live in a column of the blackboard's AttendanceMatrix,
+ * indexed by roster ordinal, and this class is a view over that column.
+ * Attendances are created only by Blackboard.addAttendance, which allocates the column,
+ * so every column in the matrix belongs to a loaded date.
  * It contains methods to handle this attendance data.
  * 
  *
@@ -25,17 +22,16 @@ import java.util.TreeSet;
 
 public class Attendance {
 
-    private final Date date;
-    private Map<String, Integer> attendMap;
-    private Map<String, int[]> attendanceMap;
-    private SortedSet<String> sortedAttendance;
+    private final SessionDate session;
+    private final int column;
+    private final AttendanceMatrix matrix;
     private Blackboard blackboard;
 
-    public Attendance(Date date) {
-        this.date = date;
-        this.attendMap =  new ConcurrentHashMap<>();
-        this.attendanceMap = new ConcurrentHashMap<String, int[]>();
+    Attendance(Date date, int column) {
+        this.session = SessionDate.of(date);
         this.blackboard = Blackboard.getInstance();
+        this.matrix = blackboard.getAttendanceMatrix();
+        this.column = column;
     }
 
     
@@ -43,63 +39,57 @@ public class Attendance {
      * Returns attendance Date
      */
     public Date getDate() {
-        return date;
+        return session.getDate();
     }
 
     
     /** 
-     * Returns formatted attendance Date
+     * Returns the session of this attendance
      */
-    public String getFormattedDate() {
-        SimpleDateFormat dt1 = new SimpleDateFormat("MM/dd/yy");
-        return dt1.format(date);
+    public SessionDate getSession() {
+        return session;
     }
 
     
     /** 
-     * Returns attendance data
+     * Returns epoch day of this attendance
      */
-    public Map<String, Integer> getAttendance() {
-        return attendMap;
+    public long getEpochDay() {
+        return session.getEpochDay();
     }
 
     
     /** 
-     * Sets attendance data
-     * @param attendMap Attendance data
+     * Returns formatted attendance Date
      */
-    public void setAttendance(Map<String, Integer> attendMap) {
-        this.attendMap = attendMap;
+    public String getFormattedDate() {
+        return session.getLabel();
     }
 
     
     /** 
-     * Checked whether student already exists in attendance data
-     * @param asurite Asurite to be checked
+     * Returns date ordinal of this attendance in the attendance matrix
      */
-    public boolean hasStudentTime(String asurite) {
-        return attendMap.containsKey(asurite);
+    public int getColumn() {
+        return column;
     }
 
     
     /** 
-     * Adds student attendance data
-     * @param asurite Asurite to be added
-     * @param minutes Minutes data for each student
+     * Checked whether student already exists in attendance data
+     * @param index Student index as per roster data
      */
-    public void addStudentTime(String asurite, int minutes) {
-        attendMap.put(asurite, minutes);
+    public boolean hasStudentTime(int index) {
+        return matrix.getMinutes(index, column) != AttendanceMatrix.ABSENT;
     }
 
     
     /** 
-     * Merges student attendance data
-     * @param asurite Asurite to be merged
-     * @param minutes Minutes data for each student
+     * Returns minutes attended by a student, or AttendanceMatrix.ABSENT
+     * @param index Student index as per roster data
      */
-    public void mergeStudentTime(String asurite, int minutes) {
-        int totalMinutes = attendMap.get(asurite) + minutes;
-        attendMap.replace(asurite, totalMinutes);
+    public int getStudentTime(int index) {
+        return matrix.getMinutes(index, column);
     }
 
     
@@ -107,163 +97,65 @@ public class Attendance {
      * Returns total attendance count
      */
     public int getAttendanceCount() {
-        return attendMap.size();
+        return matrix.getPresentCount(column);
     }
 
     
-    /** 
-     * Returns attendance minutes
-     */
-    public Vector<String> getMinutes() {
-        Vector<String> minutes = new Vector<String>();
-
-        for (Integer minute : attendMap.values())
-            minutes.add(minute.toString());
-        return minutes;
-    }
-
     /** 
      * Prints attendance data
      */
     public void printAttendance() {
-        for (String asurite : attendMap.keySet())
-            System.out.println("ASURITE: " + asurite + "\t" + "Minutes: " + attendMap.get(asurite));
-    }
-
-    
-    /** 
-     * Returns attendance data
-     */
-    public Map<String, int[]> getAttendance2() {
-        return attendanceMap;
-    }
-
-    
-     /** 
-     * Sets attendance data
-     * @param attendanceMap Attendance data
-     */
-    public void setAttendance2(Map<String, int[]> attendanceMap) {
-        this.attendanceMap = attendanceMap;
-    }
-
-    
-    /** 
-     * Checked whether student already exists in attendance data
-     * @param asurite Asurite to be checked
-     */
-    public boolean hasStudentTime2(String asurite) {
-        return attendanceMap.containsKey(asurite);
-    }
-
-    /** 
-     * Adds student attendance data
-     * @param index Student index as per roster data
-     * @param asurite Asurite to be added
-     * @param minutes Minutes data for each student
-     */
-    public void addStudentTime(int index, String asurite, int minutes) {
-        int[] studInfo = new int[2];
-        studInfo[0] = index;
-        studInfo[1] = minutes;
-        attendanceMap.put(asurite,studInfo);
+        List<Student> studs = blackboard.getStudents();
+        for (int i = 0; i < studs.size(); i++) {
+            int minutes = matrix.getMinutes(i, column);
+            if (minutes != AttendanceMatrix.ABSENT)
+                System.out.println("ASURITE: " + studs.get(i).getAsurite() + "\tIndex: " + i + "\t" + "Minutes: " + minutes);
+        }
     }
 
     
     /** 
-     * Merges student attendance data
-     * @param index Student index as per roster data
-     * @param asurite Asurite to be merged
-     * @param minutes Minutes data for each student
+     * Returns attendance minutes as per roster order in a single pass over the roster,
+     * with AttendanceMatrix.ABSENT for students who did not attend.
+     * The buffer is reused when it can hold the whole roster, otherwise a new one is returned.
+     * @param buffer Buffer to be filled, or null
      */
-    public void mergeStudentTime(int index, String asurite, int minutes) {
-        int totalMinutes = attendanceMap.get(asurite)[1] + minutes;
-
-        int[] studInfo = new int[2];
-        studInfo[0] = index;
-        studInfo[1] = totalMinutes;
-        attendanceMap.replace(asurite, studInfo);
+    public int[] project(int[] buffer) {
+        int studentCount = blackboard.getStudentCount();
+        if (buffer == null || buffer.length < studentCount)
+            buffer = new int[studentCount];
+        matrix.copyColumn(column, buffer, studentCount);
+        return buffer;
     }
 
     
     /** 
-     * Returns total attendance count
-     */
-    public int getOrderedAttendanceCount() {
-        return sortedAttendance.size();
-    }
-
-    /** 
-     * Prints attendance data
-     */
-    public void printAttendance2() {
-        for (String asurite : attendanceMap.keySet())
-            System.out.println("ASURITE: " + asurite + "\tIndex: " + attendanceMap.get(asurite)[0] + "\t" + "Minutes: " + attendanceMap.get(asurite)[1]);
-
-        sortedAttendance.forEach(key -> System.out.println(
-            "Key : " + key  + "\t\t"  + 
-                    "Value : " + attendanceMap.get(key)[1]
-            ));        
-    }
-
-    
-    /** 
-     * Returns sorted attendance data as per roster order
+     * Returns attendance minutes as per roster order,
+     * with null for students who did not attend
      */
     public Vector<String> getOrderedAttendance() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        OperationTimer timer = metrics.timer("attendance.getOrderedAttendance");
+        long start = timer.start();
+        long allocated = metrics.allocatedBytes();
 
-        Vector<String> minutesOld = new Vector<String>();
-        Vector<String> minutes = new Vector<String>();
-
-        sortedAttendance = new TreeSet<>(new Comparator<String>() {
- 
-            @Override
-            public int compare(String str1, String str2) {
-                int comp = attendanceMap.get(str1)[0] - attendanceMap.get(str2)[0];
-                return comp == 0 ? 1 : comp;
-            }
-        });
-
-        sortedAttendance.addAll(attendanceMap.keySet());
-        sortedAttendance.forEach(key -> minutesOld.add(Integer.toString(attendanceMap.get(key)[1])));
+        int[] projected = project(null);
+        Vector<String> minutes = new Vector<String>(projected.length);
 
-        minutes = updateMinutes(minutesOld);
+        for (int minute : projected)
+            minutes.add(minute == AttendanceMatrix.ABSENT ? null : Integer.toString(minute));
+        timer.record(start, projected.length, 0, metrics.allocatedBytes() - allocated);
         return minutes;
     }
 
 
-    
-    /** 
-     * Returns attendance updated minutes
-     * @param minutesOld
-     */
-    public Vector<String> updateMinutes(Vector<String> minutesOld) {
-        int i = 0;
-        Vector<String> minutes = minutesOld;
-
-        List<String> keys = new ArrayList<String>();
-        for (String key : sortedAttendance)
-            keys.add(key);
 
-        for (Student stud : blackboard.getStudents()) {
-            String str = stud.getAsurite();
-            if (!keys.contains(str)) {
-                minutes.add(i, null);
-            }
-            i++;
-        }
-        return minutes;
-    }
-
-
-
-    
     /** 
      * Returns objects hash code
      */
     @Override
     public int hashCode() {
-        return Objects.hash(date);
+        return Objects.hash(session);
     }
 
     
@@ -276,6 +168,6 @@ public class Attendance {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Attendance attend = (Attendance) o;
-        return date.equals(attend.date);
+        return session.equals(attend.session);
     }
 }
@@ -0,0 +1,204 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * This class is the columnar store for all attendance minutes held by the blackboard.
+ * It is laid out as a roster-ordinal by date-ordinal matrix of primitive minutes,
+ * with one int column per attendance date, so each cell costs four bytes.
+ *
+ * A cell that holds ABSENT means the student did not attend on that date.
+ * Students added to the roster after a column was created simply read as ABSENT for that date.
+ * Columns are filled while detached, with newColumn and merge, and are never modified
+ * once handed to the matrix: a date is changed by replacing its whole column,
+ * so the columns shared with published snapshots stay as they were.
+ * Every added or replaced column is also applied to the running StudentAggregates,
+ * so per-student and per-date summaries never need a rescan of the matrix.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class AttendanceMatrix {
+
+    public static final int ABSENT = -1;
+
+    private static final int INITIAL_COLUMNS = 16;
+
+    private int[][] columns;
+    private int[] presentCounts;
+    private int columnCount;
+    private final StudentAggregates aggregates;
+
+    public AttendanceMatrix() {
+        this.columns = new int[INITIAL_COLUMNS][];
+        this.presentCounts = new int[INITIAL_COLUMNS];
+        this.columnCount = 0;
+        this.aggregates = new StudentAggregates();
+    }
+
+
+    /**
+     * Adds an already filled date column to the matrix and returns its date ordinal.
+     * The matrix takes ownership of the column.
+     * @param column Minutes indexed by roster ordinal
+     */
+    public synchronized int addColumn(int[] column) {
+        if (columnCount == columns.length) {
+            columns = Arrays.copyOf(columns, columnCount * 2);
+            presentCounts = Arrays.copyOf(presentCounts, columnCount * 2);
+        }
+        int present = 0;
+        for (int row = 0; row < column.length; row++) {
+            if (column[row] != ABSENT) {
+                aggregates.add(row, columnCount, column[row]);
+                present++;
+            }
+        }
+        columns[columnCount] = column;
+        presentCounts[columnCount] = present;
+        return columnCount++;
+    }
+
+
+    /**
+     * Replaces the minutes of an existing date column with an already filled column.
+     * The matrix takes ownership of the column.
+     * @param col Date ordinal of the column to be replaced
+     * @param column Minutes indexed by roster ordinal
+     */
+    public synchronized void replaceColumn(int col, int[] column) {
+        int[] old = columns[col];
+        for (int row = 0; row < old.length; row++)
+            if (old[row] != ABSENT)
+                aggregates.remove(row, col, old[row]);
+
+        int present = 0;
+        for (int row = 0; row < column.length; row++) {
+            if (column[row] != ABSENT) {
+                aggregates.add(row, col, column[row]);
+                present++;
+            }
+        }
+        columns[col] = column;
+        presentCounts[col] = present;
+    }
+
+
+    /**
+     * Returns a new detached column for the given number of students with every cell ABSENT
+     * @param rows Number of students in the roster
+     */
+    public static int[] newColumn(int rows) {
+        int[] column = new int[rows];
+        Arrays.fill(column, ABSENT);
+        return column;
+    }
+
+
+    /**
+     * Adds minutes for a student to a detached column, merging with any minutes already recorded
+     * @param column Minutes indexed by roster ordinal
+     * @param row Roster ordinal of the student
+     * @param minutes Minutes to be added
+     */
+    public static void merge(int[] column, int row, int minutes) {
+        if (column[row] == ABSENT)
+            column[row] = minutes;
+        else
+            column[row] += minutes;
+    }
+
+
+    /**
+     * Returns number of date columns in the matrix
+     */
+    public synchronized int getColumnCount() {
+        return columnCount;
+    }
+
+
+    /**
+     * Returns minutes attended by a student on a date, or ABSENT
+     * @param row Roster ordinal of the student
+     * @param col Date ordinal of the attendance
+     */
+    public int getMinutes(int row, int col) {
+        int[] column = columns[col];
+        return row < column.length ? column[row] : ABSENT;
+    }
+
+
+    /**
+     * Copies a date column in roster order into a buffer in a single pass,
+     * filling students beyond the stored column with ABSENT
+     * @param col Date ordinal of the attendance
+     * @param buffer Buffer receiving minutes indexed by roster ordinal
+     * @param rows Number of students to be copied
+     */
+    public void copyColumn(int col, int[] buffer, int rows) {
+        int[] column = columns[col];
+        int stored = Math.min(rows, column.length);
+        System.arraycopy(column, 0, buffer, 0, stored);
+        if (stored < rows)
+            Arrays.fill(buffer, stored, rows, ABSENT);
+    }
+
+
+    /**
+     * Returns number of students present on a date
+     * @param col Date ordinal of the attendance
+     */
+    public int getPresentCount(int col) {
+        return presentCounts[col];
+    }
+
+
+    /**
+     * Returns a copy of the column references, indexed by date ordinal,
+     * for a snapshot that keeps the current minutes of every date
+     */
+    public synchronized int[][] copyColumns() {
+        return Arrays.copyOf(columns, columnCount);
+    }
+
+
+    /**
+     * Returns a copy of the present counts, indexed by date ordinal
+     */
+    public synchronized int[] copyPresentCounts() {
+        return Arrays.copyOf(presentCounts, columnCount);
+    }
+
+
+    /**
+     * Returns a copy of the per-student and per-date aggregates,
+     * with every invalidated minimum and maximum recomputed
+     */
+    public synchronized StudentAggregates copyAggregates() {
+        aggregates.refresh(columns, columnCount);
+        return aggregates.copy(columnCount);
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the minute columns, present counts and aggregates,
+     * including unused capacity
+     */
+    synchronized long estimateHeapBytes() {
+        long bytes = HeapEstimate.ofObject(3 * HeapEstimate.REFERENCE + 4) + HeapEstimate.of(columns)
+            + HeapEstimate.of(presentCounts) + aggregates.estimateHeapBytes();
+        for (int col = 0; col < columnCount; col++)
+            bytes += HeapEstimate.of(columns[col]);
+        return bytes;
+    }
+
+
+    /**
+     * Removes all date columns from the matrix
+     */
+    public synchronized void clear() {
+        Arrays.fill(columns, null);
+        columnCount = 0;
+        aggregates.clear();
+    }
+}
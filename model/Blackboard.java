@@ -1,13 +1,15 @@
 package model;
 
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Observable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.text.SimpleDateFormat;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
@@ -18,27 +20,68 @@ import java.util.LinkedHashMap;
  * an object of this class is created only after verifying 
  * whether an object has already been instantiated or not.
  * 
- * Additionally, it is an extension of the built-in Observable class and implements the Observer design pattern.
- * It is used to achieve the functionality of notifying the Observer class DisplayPanel 
- * as soon as it updates its data.
+ * Additionally, it implements the Observer design pattern through an EventBus.
+ * Every change posts a typed BlackboardEvent describing exactly what changed,
+ * so that listeners such as DisplayPanel only update the affected rows and columns.
+ * Related changes can be grouped with beginBatch and endBatch to be delivered together.
+ * Listeners are notified after the write lock is released, never while holding it.
+ * 
+ * It is safe to use from several threads. Writers take a lock, held for a whole batch,
+ * and publish an immutable BlackboardSnapshot once their update is complete,
+ * so a batch of many changes is captured only once, when it ends.
+ * Readers such as the table, the plot and the exporter work on a snapshot,
+ * so they never block ingestion and never see a half-made update.
+ * Lookups made by the thread holding the lock, such as getAttendance while committing a file,
+ * read the live roster, indexes and dates instead, and see the changes of the open batch.
  * 
  * @author Mukul Mahadik
  * @version 1.0
  */
 
-public class Blackboard extends Observable {
+public class Blackboard {
     private static volatile Blackboard INSTANCE;
 
-    private final List<Student> studentRoster;
-    private final List<Attendance> attendances;
-    private Map<String, Integer> extraAttendees;
+    private static final int INITIAL_ROSTER_CAPACITY = 64;
+
+    private Student[] studentRoster;
+    private int studentCount;
+    private final NavigableMap<Long, Attendance> attendances;
+    private final NavigableMap<Long, SessionExtras> extraAttendees;
+
+    private SymbolTable symbols;
+    private RosterIndex asuriteIndex;
+    private RosterIndex idIndex;
+    private final AttendanceMatrix attendanceMatrix;
+    private final IngestManifest manifest;
+    private final EventBus events;
 
-    private String action = "";
+    private final ReentrantLock writeLock;
+    private int batchDepth;
+    private long version;
+    private boolean sessionsChanged;
+    private boolean extrasChanged;
+    private boolean cachesCleared;
+    private boolean manifestChanged;
+    private boolean stale;
+    private volatile BlackboardSnapshot snapshot;
 
     private Blackboard() {
-        this.studentRoster = new ArrayList<Student>();
-        this.attendances = new ArrayList<Attendance>();
-        this.extraAttendees = new HashMap<String, Integer>();
+        this.studentRoster = new Student[INITIAL_ROSTER_CAPACITY];
+        this.studentCount = 0;
+        this.symbols = new SymbolTable();
+        this.asuriteIndex = new RosterIndex(symbols);
+        this.idIndex = new RosterIndex(symbols);
+        this.attendanceMatrix = new AttendanceMatrix();
+        this.manifest = new IngestManifest();
+        this.attendances = new TreeMap<Long, Attendance>();
+        this.extraAttendees = new TreeMap<Long, SessionExtras>();
+        this.events = new EventBus();
+        this.writeLock = new ReentrantLock();
+        this.sessionsChanged = true;
+        this.extrasChanged = true;
+        this.manifestChanged = true;
+        this.stale = true;
+        publish();
     }
 
     
@@ -58,29 +101,154 @@ public class Blackboard extends Observable {
 
     
     /** 
-     * Adds new student to the blackboard
+     * Returns the latest published point-in-time view of the blackboard without waiting
+     * for a running update. Changes made in an open batch are published when it ends.
+     */
+    public BlackboardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    
+    /** 
+     * Adds new student to the blackboard.
+     * A student encoded in another symbol table is re-encoded into the roster's table,
+     * except for the first student of an empty roster, whose table is adopted as is.
      * @param stud Student to be added
      */
     public void addStudent(Student stud) {
-        studentRoster.add(stud);
+        writeLock.lock();
+        try {
+            if (stud.getSymbols() != symbols) {
+                if (studentCount == 0)
+                    adoptSymbols(stud.getSymbols());
+                else
+                    stud = new Student(symbols, stud);
+            }
+            int ordinal = studentCount;
+            if (ordinal == studentRoster.length)
+                studentRoster = Arrays.copyOf(studentRoster, ordinal * 2);
+            studentRoster[ordinal] = stud;
+            studentCount++;
+            idIndex.put(stud.getIdCode(), ordinal);
+            asuriteIndex.put(stud.getAsuriteCode(), ordinal);
+            changed(BlackboardEvent.studentsAdded(ordinal, ordinal + 1));
+        } finally {
+            unlock();
+        }
     }
 
     
     /** 
-     * Adds new dated attendance to the blackboard
-     * @param attend
+     * Adds new students to the blackboard in one update and returns how many were added.
+     * Students whose ID is already on the roster are skipped, with an array lookup by symbol code
+     * when they share the roster's symbol table, and the roster array grows at most once.
+     * Listeners are notified with a single event for the whole range of added students.
+     * @param students Students to be added
      */
-    public void addAttendance(Attendance attend) {
-        attendances.add(attend);
+    public int addStudents(List<Student> students) {
+        writeLock.lock();
+        try {
+            if (students.isEmpty())
+                return 0;
+            if (studentCount == 0 && students.get(0).getSymbols() != symbols)
+                adoptSymbols(students.get(0).getSymbols());
+            if (studentCount + students.size() > studentRoster.length)
+                studentRoster = Arrays.copyOf(studentRoster, Math.max(studentCount + students.size(), studentRoster.length * 2));
+
+            int first = studentCount;
+            for (Student stud : students) {
+                if (stud.getSymbols() != symbols) {
+                    if (idIndex.get(symbols.lookup(stud.getSymbols(), stud.getIdCode())) != RosterIndex.NOT_FOUND)
+                        continue;
+                    stud = new Student(symbols, stud);
+                }
+                else if (idIndex.get(stud.getIdCode()) != RosterIndex.NOT_FOUND)
+                    continue;
+                studentRoster[studentCount] = stud;
+                idIndex.put(stud.getIdCode(), studentCount);
+                asuriteIndex.put(stud.getAsuriteCode(), studentCount);
+                studentCount++;
+            }
+            if (studentCount > first)
+                changed(BlackboardEvent.studentsAdded(first, studentCount));
+            return studentCount - first;
+        } finally {
+            unlock();
+        }
     }
 
     
-    /**
-     * Calls observer methods by notifying them when file parsing is completed
+    /** 
+     * Adds the minutes of a date to the blackboard and returns its attendance.
+     * The date's column is allocated in the attendance matrix under the write lock,
+     * and a date that is already loaded has its minutes replaced instead.
+     * @param date Attendance date
+     * @param minutes Minutes indexed by roster ordinal, owned by the blackboard from now on
+     */
+    public Attendance addAttendance(Date date, int[] minutes) {
+        writeLock.lock();
+        try {
+            Attendance attend = attendances.get(SessionDate.epochDay(date));
+            if (attend != null) {
+                attendanceMatrix.replaceColumn(attend.getColumn(), minutes);
+                sessionsChanged = true;
+                changed(BlackboardEvent.sessionReplaced(attend));
+                return attend;
+            }
+            attend = new Attendance(date, attendanceMatrix.addColumn(minutes));
+            attendances.put(attend.getEpochDay(), attend);
+            sessionsChanged = true;
+            changed(BlackboardEvent.sessionAdded(attend));
+            return attend;
+        } finally {
+            unlock();
+        }
+    }
+
+    
+    /** 
+     * Registers a listener to be notified of blackboard changes
+     * @param listener Listener to be notified
+     */
+    public void addListener(BlackboardListener listener) {
+        events.addListener(listener);
+    }
+
+    
+    /** 
+     * Unregisters a listener
+     * @param listener Listener to be removed
+     */
+    public void removeListener(BlackboardListener listener) {
+        events.removeListener(listener);
+    }
+
+    
+    /** 
+     * Starts an update made up of several changes.
+     * Other writers wait until endBatch, other readers keep seeing the snapshot
+     * published before the update, and listeners are notified of all changes together.
+     */
+    public void beginBatch() {
+        writeLock.lock();
+        batchDepth++;
+    }
+
+    
+    /** 
+     * Ends an update started by beginBatch, publishing a new snapshot
+     * and notifying listeners of the changes made since beginBatch
+     * once the outermost batch has released the lock
      */
-    public void fileParsed() {
-        this.setChanged();
-        this.notifyObservers();
+    public void endBatch() {
+        try {
+            if (--batchDepth == 0) {
+                publish();
+                events.publish();
+            }
+        } finally {
+            unlock();
+        }
     }
 
     
@@ -89,7 +257,12 @@ public class Blackboard extends Observable {
      * @param stud Student to be checked
      */
     public boolean hasStudent(Student stud) {
-        return studentRoster.contains(stud);
+        writeLock.lock();
+        try {
+            return idIndex.get(symbols.lookup(stud.getSymbols(), stud.getIdCode())) != RosterIndex.NOT_FOUND;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     
@@ -97,47 +270,148 @@ public class Blackboard extends Observable {
      * Returns total number of students in class
      */
     public int getStudentCount() {
-        return studentRoster.size();
+        if (writeLock.isHeldByCurrentThread())
+            return studentCount;
+        return snapshot.getStudentCount();
     }
 
     
     /** 
-     * Returns list of students in class
+     * Returns list of students in class, as of the current snapshot
      */
     public List<Student> getStudents() {
-        return studentRoster;
+        return getSnapshot().getStudents();
     }
 
     
     /** 
-     * Returns all dates attendance data for the class
+     * Returns the attendance minutes matrix backing every dated attendance
      */
-    public List<Attendance> getAttendances() {
-        return attendances;
+    public AttendanceMatrix getAttendanceMatrix() {
+        return attendanceMatrix;
     }
 
-    /**
-     * Clears the student roster data
+    
+    /** 
+     * Returns the manifest of the files each attendance date was loaded from.
+     * It is changed through putManifestEntry, so that snapshots see the entries
+     * that match their attendance.
      */
-    public void clearRoster() {
-        studentRoster.removeAll(studentRoster);
+    public IngestManifest getManifest() {
+        return manifest;
+    }
+
+    
+    /** 
+     * Records the source file of an attendance date in the manifest
+     * @param date Attendance date
+     * @param entry Source file entry
+     */
+    public void putManifestEntry(Date date, IngestManifest.Entry entry) {
+        writeLock.lock();
+        try {
+            manifest.put(date, entry);
+            manifestChanged = true;
+            stale = true;
+            if (batchDepth == 0)
+                publish();
+        } finally {
+            unlock();
+        }
+    }
+
+    
+    /** 
+     * Returns the attendance for a date, or null when that date is not loaded
+     * @param date Attendance date
+     */
+    public Attendance getAttendance(Date date) {
+        if (writeLock.isHeldByCurrentThread())
+            return attendances.get(SessionDate.epochDay(date));
+        return snapshot.getAttendance(date);
+    }
+
+    
+    /** 
+     * Replaces the minutes of an already loaded attendance date
+     * @param attend Attendance to be replaced
+     * @param minutes New minutes indexed by roster ordinal
+     */
+    public void replaceAttendance(Attendance attend, int[] minutes) {
+        writeLock.lock();
+        try {
+            attendanceMatrix.replaceColumn(attend.getColumn(), minutes);
+            sessionsChanged = true;
+            changed(BlackboardEvent.sessionReplaced(attend));
+        } finally {
+            unlock();
+        }
+    }
+
+    
+    /** 
+     * Returns all dates attendance data for the class in date order
+     */
+    public Collection<Attendance> getAttendances() {
+        return getSnapshot().getAttendances();
     }
 
     
     /** 
-     * Returns the menu action chosen
+     * Returns the attendance data within an inclusive date range in date order,
+     * for example all sessions in one month
+     * @param fromDate First date of the range, or null to start from the first session
+     * @param toDate Last date of the range, or null to run to the last session
      */
-    public String getAction() {
-        return action;
+    public Collection<Attendance> getAttendances(Date fromDate, Date toDate) {
+        return getSnapshot().getAttendances(fromDate, toDate);
     }
 
     
     /** 
-     * Sets the menu action chosen
-     * @param action Action to be set
+     * Returns number of attendance dates loaded
+     */
+    public int getAttendanceDateCount() {
+        return getSnapshot().getAttendances().size();
+    }
+
+    /**
+     * Clears the student roster data along with the attendance recorded against it,
+     * since attendance minutes are stored by roster ordinal.
+     * The roster array and symbol tables are replaced rather than cleared,
+     * so snapshots and students still held elsewhere stay intact.
+     */
+    public void clearRoster() {
+        writeLock.lock();
+        try {
+            studentRoster = new Student[INITIAL_ROSTER_CAPACITY];
+            studentCount = 0;
+            attendances.clear();
+            attendanceMatrix.clear();
+            manifest.clear();
+            manifestChanged = true;
+            extraAttendees.clear();
+            symbols = new SymbolTable();
+            asuriteIndex = new RosterIndex(symbols);
+            idIndex = new RosterIndex(symbols);
+            sessionsChanged = true;
+            extrasChanged = true;
+            changed(BlackboardEvent.rosterReplaced());
+            changed(BlackboardEvent.extrasChanged());
+        } finally {
+            unlock();
+        }
+    }
+
+
+    /**
+     * Makes a symbol table the roster's table
+     * @param table Symbol table to be adopted
      */
-    public void setAction(String action) {
-        this.action = action;
+    private void adoptSymbols(SymbolTable table) {
+        symbols = table;
+        asuriteIndex = new RosterIndex(table);
+        idIndex = new RosterIndex(table);
     }
 
     
@@ -146,41 +420,104 @@ public class Blackboard extends Observable {
      * @param date Date fetched from attendance file
      */
     public String getFormattedDate(Date date) {
-        SimpleDateFormat dt1 = new SimpleDateFormat("MM/dd/yy");
-        return dt1.format(date);
+        return SessionDate.format(date);
     }
 
     
     /** 
      * Checks whether a student exists in blackboard
+     * and returns its roster ordinal, or -1 when not found
      * @param asurite Asurite id to be checked
      */
     public int hasAsurite(String asurite) {
-        int studIDFlag = -1;
-        for (Student stud : studentRoster) {
-            if (asurite.equals(stud.getAsurite())) {
-                studIDFlag = studentRoster.indexOf(stud);
-                return studIDFlag;
-            }
+        if (writeLock.isHeldByCurrentThread())
+            return asuriteIndex.get(asurite);
+        return snapshot.indexOfAsurite(asurite);
+    }
+
+    
+    /** 
+     * Returns the roster ordinal of a student, or -1 when not found
+     * @param id Student ID to be checked
+     */
+    public int indexOfId(String id) {
+        if (writeLock.isHeldByCurrentThread())
+            return idIndex.get(id);
+        return snapshot.indexOfId(id);
+    }
+
+    
+    /** 
+     * Replaces all extra non-rostered students with the extras of the given sessions
+     * @param sessionExtras Extra students of each session
+     */
+    public void setExtras(Collection<SessionExtras> sessionExtras) {
+        writeLock.lock();
+        try {
+            extraAttendees.clear();
+            for (SessionExtras extras : sessionExtras)
+                extraAttendees.put(extras.getEpochDay(), extras);
+            extrasChanged = true;
+            changed(BlackboardEvent.extrasChanged());
+        } finally {
+            unlock();
+        }
+    }
+
+    
+    /** 
+     * Sets the extra non-rostered students of one session,
+     * replacing any previously recorded for that session
+     * @param extras Extra students of the session
+     */
+    public void putExtras(SessionExtras extras) {
+        writeLock.lock();
+        try {
+            extraAttendees.put(extras.getEpochDay(), extras);
+            extrasChanged = true;
+            changed(BlackboardEvent.extrasChanged());
+        } finally {
+            unlock();
+        }
+    }
+
+    
+    /** 
+     * Removes all extra non-rostered students
+     */
+    public void clearExtras() {
+        writeLock.lock();
+        try {
+            extraAttendees.clear();
+            extrasChanged = true;
+            changed(BlackboardEvent.extrasChanged());
+        } finally {
+            unlock();
         }
-        return studIDFlag;
     }
 
     
     /** 
-     * Sets the extra non-rostered students
-     * @param extraAttendees Extra students list
+     * Returns number of extra non-rostered students
      */
-    public void setExtras(Map<String, Integer> extraAttendees) {
-        this.extraAttendees = extraAttendees;
+    public int getExtraCount() {
+        return getSnapshot().getExtras().size();
     }
 
     
     /** 
-     * Returns the extra non-rostered students
+     * Returns the extra non-rostered students kept, with their minutes summed over all sessions
      */
     public Map<String, Integer> getExtras() {
-        return extraAttendees;
+        return getSnapshot().getExtras();
+    }
+
+    
+    /** 
+     * Returns the extra non-rostered students of each session in date order
+     */
+    public Collection<SessionExtras> getSessionExtras() {
+        return getSnapshot().getSessionExtras();
     }
 
     
@@ -188,12 +525,138 @@ public class Blackboard extends Observable {
      * Returns the list of datewise attendance with total student count for each date
      */
     public LinkedHashMap<String, Integer> getAttendanceCount() {
-        LinkedHashMap<String, Integer> attendCount = new LinkedHashMap<String, Integer>();
+        return getSnapshot().getAttendanceCount();
+    }
+
+    
+    /** 
+     * Returns estimated heap bytes held by each structure of the blackboard, keyed by
+     * roster, symbols, indexes, attendance, extras and presence, including unused capacity.
+     * Presence bitmaps are those built for the published snapshot.
+     */
+    public Map<String, Long> estimateHeapBytes() {
+        writeLock.lock();
+        try {
+            Map<String, Long> bytes = new LinkedHashMap<String, Long>();
+            bytes.put("roster", HeapEstimate.of(studentRoster)
+                + studentCount * HeapEstimate.ofObject(HeapEstimate.REFERENCE + 16));
+            bytes.put("symbols", symbols.estimateHeapBytes());
+            bytes.put("indexes", asuriteIndex.estimateHeapBytes() + idIndex.estimateHeapBytes());
+            bytes.put("attendance", attendanceMatrix.estimateHeapBytes());
+            long extras = 0;
+            for (SessionExtras session : extraAttendees.values())
+                extras += session.estimateHeapBytes();
+            bytes.put("extras", extras);
+            bytes.put("presence", snapshot.getPresenceIndex().estimateHeapBytes());
+            return bytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    
+    /** 
+     * Publishes a new snapshot of the same state without the presence bitmaps and merged extras
+     * cached by the current one, which are rebuilt on the next query.
+     * Readers still holding the current snapshot keep its caches.
+     */
+    public void clearCaches() {
+        writeLock.lock();
+        try {
+            cachesCleared = true;
+            stale = true;
+            if (batchDepth == 0)
+                publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    
+    /** 
+     * Records a change made while holding the write lock,
+     * publishing a new snapshot and the change's event unless a batch is open
+     * @param event Event describing the change
+     */
+    private void changed(BlackboardEvent event) {
+        stale = true;
+        events.post(event);
+        if (batchDepth == 0) {
+            publish();
+            events.publish();
+        }
+    }
+
+    
+    /** 
+     * Releases the write lock taken for an update and, once this thread no longer holds it,
+     * delivers the published changes to the listeners
+     */
+    private void unlock() {
+        writeLock.unlock();
+        if (!writeLock.isHeldByCurrentThread())
+            events.deliver();
+    }
+
+    
+    /** 
+     * Publishes a snapshot of the current state if anything changed since the last one.
+     * Must be called while holding the write lock, and only once no batch is open.
+     */
+    private void publish() {
+        if (stale) {
+            snapshot = capture(snapshot);
+            stale = false;
+        }
+    }
+
+    
+    /** 
+     * Returns a snapshot of the current state, sharing the roster array
+     * and reusing the parts of the previous capture that have not changed
+     * @param previous Previous capture, or null
+     */
+    private BlackboardSnapshot capture(BlackboardSnapshot previous) {
+        NavigableMap<Long, Attendance> sessions;
+        int[][] columns;
+        int[] presentCounts;
+        StudentAggregates aggregates;
+        PresenceIndex presence;
+        if (previous == null || sessionsChanged) {
+            sessions = Collections.unmodifiableNavigableMap(new TreeMap<Long, Attendance>(attendances));
+            columns = attendanceMatrix.copyColumns();
+            presentCounts = attendanceMatrix.copyPresentCounts();
+            aggregates = attendanceMatrix.copyAggregates();
+            presence = previous == null || cachesCleared
+                ? new PresenceIndex(columns) : new PresenceIndex(columns, previous.getPresenceIndex());
+            sessionsChanged = false;
+        }
+        else {
+            sessions = previous.getSessions();
+            columns = previous.getColumns();
+            presentCounts = previous.getPresentCounts();
+            aggregates = previous.getAggregates();
+            presence = cachesCleared ? new PresenceIndex(columns) : previous.getPresenceIndex();
+        }
+        cachesCleared = false;
+
+        NavigableMap<Long, SessionExtras> extras;
+        if (previous == null || extrasChanged) {
+            extras = Collections.unmodifiableNavigableMap(new TreeMap<Long, SessionExtras>(extraAttendees));
+            extrasChanged = false;
+        }
+        else
+            extras = previous.getSessionExtrasMap();
 
-        for (Attendance attend : attendances) {
-            attendCount.put(attend.getFormattedDate(), attend.getOrderedAttendanceCount());
+        Map<Date, IngestManifest.Entry> sources;
+        if (previous == null || manifestChanged) {
+            sources = Collections.unmodifiableMap(manifest.getEntries());
+            manifestChanged = false;
         }
+        else
+            sources = previous.getManifestEntries();
 
-        return attendCount;
+        return new BlackboardSnapshot(++version, studentRoster, studentCount, asuriteIndex, idIndex,
+            sessions, columns, presentCounts, aggregates, presence, extras, sources);
     }
 }
@@ -0,0 +1,152 @@
+package model;
+
+/**
+ * This class describes one change made to the blackboard.
+ * Each event carries only what a listener needs to update the affected
+ * rows or columns, so the whole blackboard never has to be re-read.
+ * The changes are:
+ * 1. ROSTER_REPLACED - the roster was cleared, along with all attendance recorded against it
+ * 2. STUDENTS_ADDED - a range of roster ordinals was appended to the roster
+ * 3. SESSION_ADDED - a dated attendance was added
+ * 4. SESSION_REPLACED - the minutes of an already loaded dated attendance were replaced
+ * 5. EXTRAS_CHANGED - the non-rostered attendees changed
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class BlackboardEvent {
+
+    public enum Type {
+        ROSTER_REPLACED,
+        STUDENTS_ADDED,
+        SESSION_ADDED,
+        SESSION_REPLACED,
+        EXTRAS_CHANGED
+    }
+
+    private final Type type;
+    private final int firstStudent;
+    private final int lastStudent;
+    private final Attendance attendance;
+
+    private BlackboardEvent(Type type, int firstStudent, int lastStudent, Attendance attendance) {
+        this.type = type;
+        this.firstStudent = firstStudent;
+        this.lastStudent = lastStudent;
+        this.attendance = attendance;
+    }
+
+
+    /**
+     * Returns an event for a cleared roster
+     */
+    public static BlackboardEvent rosterReplaced() {
+        return new BlackboardEvent(Type.ROSTER_REPLACED, 0, 0, null);
+    }
+
+
+    /**
+     * Returns an event for students appended to the roster
+     * @param firstStudent Roster ordinal of the first student added
+     * @param lastStudent Roster ordinal just past the last student added
+     */
+    public static BlackboardEvent studentsAdded(int firstStudent, int lastStudent) {
+        return new BlackboardEvent(Type.STUDENTS_ADDED, firstStudent, lastStudent, null);
+    }
+
+
+    /**
+     * Returns an event for an added dated attendance
+     * @param attend Attendance added
+     */
+    public static BlackboardEvent sessionAdded(Attendance attend) {
+        return new BlackboardEvent(Type.SESSION_ADDED, 0, 0, attend);
+    }
+
+
+    /**
+     * Returns an event for a dated attendance whose minutes were replaced
+     * @param attend Attendance replaced
+     */
+    public static BlackboardEvent sessionReplaced(Attendance attend) {
+        return new BlackboardEvent(Type.SESSION_REPLACED, 0, 0, attend);
+    }
+
+
+    /**
+     * Returns an event for changed non-rostered attendees
+     */
+    public static BlackboardEvent extrasChanged() {
+        return new BlackboardEvent(Type.EXTRAS_CHANGED, 0, 0, null);
+    }
+
+
+    /**
+     * Returns the kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+
+    /**
+     * Returns roster ordinal of the first student added
+     */
+    public int getFirstStudent() {
+        return firstStudent;
+    }
+
+
+    /**
+     * Returns roster ordinal just past the last student added
+     */
+    public int getLastStudent() {
+        return lastStudent;
+    }
+
+
+    /**
+     * Returns the attendance added or replaced
+     */
+    public Attendance getAttendance() {
+        return attendance;
+    }
+
+
+    /**
+     * Returns the event merged with a later event of the same kind,
+     * or null when the two cannot be merged
+     * @param next Later event
+     */
+    BlackboardEvent coalesce(BlackboardEvent next) {
+        if (type != next.type)
+            return null;
+        switch (type) {
+            case STUDENTS_ADDED:
+                return lastStudent == next.firstStudent ? studentsAdded(firstStudent, next.lastStudent) : null;
+            case SESSION_REPLACED:
+                return attendance.equals(next.attendance) ? next : null;
+            case EXTRAS_CHANGED:
+                return next;
+            default:
+                return null;
+        }
+    }
+
+
+    /**
+     * Returns a description of the event
+     */
+    @Override
+    public String toString() {
+        switch (type) {
+            case STUDENTS_ADDED:
+                return type + "[" + firstStudent + ", " + lastStudent + ")";
+            case SESSION_ADDED:
+            case SESSION_REPLACED:
+                return type + "[" + attendance.getFormattedDate() + "]";
+            default:
+                return type.toString();
+        }
+    }
+}
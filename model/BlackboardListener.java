@@ -0,0 +1,20 @@
+package model;
+
+import java.util.List;
+
+/**
+ * This interface is implemented by classes that are notified of blackboard changes.
+ * Changes made together, such as all the dates of one attendance load,
+ * are delivered in a single call once the whole update has been made.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public interface BlackboardListener {
+
+    /**
+     * Called after the blackboard has changed
+     * @param events Changes in the order they were made
+     */
+    void blackboardChanged(List<BlackboardEvent> events);
+}
@@ -0,0 +1,192 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * This class exposes the state of the blackboard over JMX, so that it can be watched
+ * on a lab machine with standard tools such as jconsole without a debugger:
+ * how many students, sessions and extras it holds, and an estimate of the heap
+ * taken by each of its structures.
+ * Counts are read from the latest published snapshot, so reading them never waits for an ingest,
+ * while heap estimates briefly take the blackboard's lock to measure a consistent state.
+ * The estimates are measured at most once a second and shared by all heap attributes,
+ * so one refresh of a JMX console walks the blackboard once rather than once per attribute.
+ *
+ * It also offers operations to write a snapshot file and to clear the snapshot caches.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class BlackboardMonitor implements BlackboardMonitorMBean {
+
+    public static final String OBJECT_NAME = "attendance:type=Blackboard";
+
+    private static final long HEAP_ESTIMATE_NANOS = 1_000_000_000L;
+
+    private final Blackboard blackboard;
+    private Map<String, Long> heapBytes;
+    private long heapEstimatedAt;
+
+    public BlackboardMonitor() {
+        this.blackboard = Blackboard.getInstance();
+    }
+
+
+    /**
+     * Returns number of students in the roster
+     */
+    @Override
+    public int getStudentCount() {
+        return blackboard.getSnapshot().getStudentCount();
+    }
+
+
+    /**
+     * Returns number of attendance dates loaded
+     */
+    @Override
+    public int getSessionCount() {
+        return blackboard.getSnapshot().getAttendances().size();
+    }
+
+
+    /**
+     * Returns number of non-rostered attendees over all sessions, including those not kept
+     */
+    @Override
+    public long getExtraAttendeeCount() {
+        long count = 0;
+        for (SessionExtras extras : blackboard.getSnapshot().getSessionExtras())
+            count += extras.getAttendeeCount();
+        return count;
+    }
+
+
+    /**
+     * Returns number of non-rostered attendees kept over all sessions
+     */
+    @Override
+    public long getExtrasKept() {
+        long count = 0;
+        for (SessionExtras extras : blackboard.getSnapshot().getSessionExtras())
+            count += extras.size();
+        return count;
+    }
+
+
+    /**
+     * Returns version of the latest published snapshot
+     */
+    @Override
+    public long getSnapshotVersion() {
+        return blackboard.getSnapshot().getVersion();
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the student roster
+     */
+    @Override
+    public long getRosterHeapBytes() {
+        return getHeapBytes().get("roster");
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the symbol table
+     */
+    @Override
+    public long getSymbolsHeapBytes() {
+        return getHeapBytes().get("symbols");
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the ASURITE and ID indexes
+     */
+    @Override
+    public long getIndexesHeapBytes() {
+        return getHeapBytes().get("indexes");
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the attendance matrix and its aggregates
+     */
+    @Override
+    public long getAttendanceHeapBytes() {
+        return getHeapBytes().get("attendance");
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the non-rostered attendees
+     */
+    @Override
+    public long getExtrasHeapBytes() {
+        return getHeapBytes().get("extras");
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the cached presence bitmaps
+     */
+    @Override
+    public long getPresenceCacheHeapBytes() {
+        return getHeapBytes().get("presence");
+    }
+
+
+    /**
+     * Returns estimated heap bytes of all the structures above
+     */
+    @Override
+    public long getTotalHeapBytes() {
+        long total = 0;
+        for (long bytes : getHeapBytes().values())
+            total += bytes;
+        return total;
+    }
+
+
+    /**
+     * Writes a snapshot of the blackboard to a file and returns a description of it
+     * @param path Path of the file to be written
+     */
+    @Override
+    public String saveSnapshot(String path) throws IOException {
+        File file = new File(path);
+        BlackboardSnapshot snapshot = blackboard.getSnapshot();
+        new SnapshotFile().write(file);
+        return "Saved snapshot version " + snapshot.getVersion() + " with " + snapshot.getStudentCount()
+            + " student(s) and " + snapshot.getAttendances().size() + " date(s) to " + file.getAbsolutePath();
+    }
+
+
+    /**
+     * Publishes a new snapshot without the cached presence bitmaps and merged extras of the current one
+     */
+    @Override
+    public void clearCaches() {
+        blackboard.clearCaches();
+        synchronized (this) {
+            heapBytes = null;
+        }
+    }
+
+
+    /**
+     * Returns the heap estimates of the blackboard structures,
+     * measuring them again only when the last estimate is more than a second old
+     */
+    private synchronized Map<String, Long> getHeapBytes() {
+        long now = System.nanoTime();
+        if (heapBytes == null || now - heapEstimatedAt > HEAP_ESTIMATE_NANOS) {
+            heapBytes = blackboard.estimateHeapBytes();
+            heapEstimatedAt = now;
+        }
+        return heapBytes;
+    }
+}
@@ -0,0 +1,85 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * This interface is the JMX management interface of BlackboardMonitor,
+ * registered as attendance:type=Blackboard.
+ * Each getter is a read-only attribute and every other method is an operation.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public interface BlackboardMonitorMBean {
+
+    /**
+     * Returns number of students in the roster
+     */
+    int getStudentCount();
+
+    /**
+     * Returns number of attendance dates loaded
+     */
+    int getSessionCount();
+
+    /**
+     * Returns number of non-rostered attendees over all sessions, including those not kept
+     */
+    long getExtraAttendeeCount();
+
+    /**
+     * Returns number of non-rostered attendees kept over all sessions
+     */
+    long getExtrasKept();
+
+    /**
+     * Returns version of the latest published snapshot
+     */
+    long getSnapshotVersion();
+
+    /**
+     * Returns estimated heap bytes of the student roster
+     */
+    long getRosterHeapBytes();
+
+    /**
+     * Returns estimated heap bytes of the symbol table
+     */
+    long getSymbolsHeapBytes();
+
+    /**
+     * Returns estimated heap bytes of the ASURITE and ID indexes
+     */
+    long getIndexesHeapBytes();
+
+    /**
+     * Returns estimated heap bytes of the attendance matrix and its aggregates
+     */
+    long getAttendanceHeapBytes();
+
+    /**
+     * Returns estimated heap bytes of the non-rostered attendees
+     */
+    long getExtrasHeapBytes();
+
+    /**
+     * Returns estimated heap bytes of the cached presence bitmaps
+     */
+    long getPresenceCacheHeapBytes();
+
+    /**
+     * Returns estimated heap bytes of all the structures above
+     */
+    long getTotalHeapBytes();
+
+    /**
+     * Writes a snapshot of the blackboard to a file and returns a description of it
+     * @param path Path of the file to be written
+     */
+    String saveSnapshot(String path) throws IOException;
+
+    /**
+     * Publishes a new snapshot without the cached presence bitmaps and merged extras of the current one
+     */
+    void clearCaches();
+}
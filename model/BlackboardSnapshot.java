@@ -0,0 +1,425 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+
+/**
+ * This class is an immutable, versioned point-in-time view of the blackboard.
+ * The blackboard publishes a new snapshot after every update, and readers such as
+ * the table, the plot and the exporter keep working on the snapshot they took
+ * while ingestion goes on, without locking and without ever seeing a half-made update.
+ *
+ * Snapshots are cheap to publish: the roster array is shared with the blackboard,
+ * which only ever appends beyond the students a snapshot can see,
+ * and the dates, minute columns, aggregates and extras are reused until they change.
+ *
+ * Presence queries, such as the students absent on at least three of the last ten dates,
+ * are answered by combining per-date presence bitmaps, built once per date and threshold
+ * and carried over to later snapshots until that date's minutes are replaced.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public final class BlackboardSnapshot {
+
+    private final long version;
+    private final Student[] students;
+    private final int studentCount;
+    private final RosterIndex asuriteIndex;
+    private final RosterIndex idIndex;
+    private final NavigableMap<Long, Attendance> sessions;
+    private final int[][] columns;
+    private final int[] presentCounts;
+    private final StudentAggregates aggregates;
+    private final PresenceIndex presence;
+    private final NavigableMap<Long, SessionExtras> sessionExtras;
+    private volatile Map<String, Integer> extras;
+    private final Map<Date, IngestManifest.Entry> manifestEntries;
+    private final List<Student> studentList;
+
+    BlackboardSnapshot(long version, Student[] students, int studentCount, RosterIndex asuriteIndex, RosterIndex idIndex,
+            NavigableMap<Long, Attendance> sessions, int[][] columns, int[] presentCounts, StudentAggregates aggregates,
+            PresenceIndex presence, NavigableMap<Long, SessionExtras> sessionExtras,
+            Map<Date, IngestManifest.Entry> manifestEntries) {
+        this.version = version;
+        this.students = students;
+        this.studentCount = studentCount;
+        this.asuriteIndex = asuriteIndex;
+        this.idIndex = idIndex;
+        this.sessions = sessions;
+        this.columns = columns;
+        this.presentCounts = presentCounts;
+        this.aggregates = aggregates;
+        this.presence = presence;
+        this.sessionExtras = sessionExtras;
+        this.manifestEntries = manifestEntries;
+        this.studentList = new StudentList();
+    }
+
+
+    /**
+     * Returns the version of this snapshot, which grows with every published update
+     */
+    public long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Returns total number of students in class
+     */
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+
+    /**
+     * Returns a student by roster ordinal
+     * @param row Roster ordinal of the student
+     */
+    public Student getStudent(int row) {
+        if (row >= studentCount)
+            throw new IndexOutOfBoundsException("Student " + row + " of " + studentCount);
+        return students[row];
+    }
+
+
+    /**
+     * Returns the roster ordinal of the student with an ASURITE, or RosterIndex.NOT_FOUND
+     * @param asurite ASURITE to be looked up
+     */
+    public int indexOfAsurite(String asurite) {
+        return visible(asuriteIndex.get(asurite));
+    }
+
+
+    /**
+     * Returns the roster ordinal of the student with an ASURITE held as UTF-8 bytes,
+     * or RosterIndex.NOT_FOUND, without decoding the bytes into a string
+     * @param bytes Buffer holding the ASURITE
+     * @param offset Offset of the ASURITE in the buffer
+     * @param length Length of the ASURITE in bytes
+     */
+    public int indexOfAsurite(byte[] bytes, int offset, int length) {
+        return visible(asuriteIndex.get(bytes, offset, length));
+    }
+
+
+    /**
+     * Returns the roster ordinal of the student with an ID, or RosterIndex.NOT_FOUND
+     * @param id Student ID to be looked up
+     */
+    public int indexOfId(String id) {
+        return visible(idIndex.get(id));
+    }
+
+
+    /**
+     * Returns an unmodifiable list of students in class
+     */
+    public List<Student> getStudents() {
+        return studentList;
+    }
+
+
+    /**
+     * Returns all dates attendance data for the class in date order
+     */
+    public Collection<Attendance> getAttendances() {
+        return sessions.values();
+    }
+
+
+    /**
+     * Returns the attendance data within an inclusive date range in date order
+     * @param fromDate First date of the range, or null to start from the first session
+     * @param toDate Last date of the range, or null to run to the last session
+     */
+    public Collection<Attendance> getAttendances(Date fromDate, Date toDate) {
+        long fromDay = fromDate == null ? Long.MIN_VALUE : SessionDate.epochDay(fromDate);
+        long toDay = toDate == null ? Long.MAX_VALUE : SessionDate.epochDay(toDate);
+        if (fromDay > toDay)
+            return new ArrayList<Attendance>();
+        return sessions.subMap(fromDay, true, toDay, true).values();
+    }
+
+
+    /**
+     * Returns the attendance for a date, or null when that date is not loaded
+     * @param date Attendance date
+     */
+    public Attendance getAttendance(Date date) {
+        return sessions.get(SessionDate.epochDay(date));
+    }
+
+
+    /**
+     * Returns minutes attended by a student on a date, or AttendanceMatrix.ABSENT
+     * @param row Roster ordinal of the student
+     * @param attend Attendance of the date
+     */
+    public int getMinutes(int row, Attendance attend) {
+        int[] column = columns[attend.getColumn()];
+        return row < column.length ? column[row] : AttendanceMatrix.ABSENT;
+    }
+
+
+    /**
+     * Copies the minutes of a date in roster order into a buffer,
+     * reusing the buffer when it can hold the whole roster
+     * @param attend Attendance of the date
+     * @param buffer Buffer to be filled, or null
+     */
+    public int[] project(Attendance attend, int[] buffer) {
+        if (buffer == null || buffer.length < studentCount)
+            buffer = new int[studentCount];
+        int[] column = columns[attend.getColumn()];
+        int stored = Math.min(studentCount, column.length);
+        System.arraycopy(column, 0, buffer, 0, stored);
+        for (int i = stored; i < studentCount; i++)
+            buffer[i] = AttendanceMatrix.ABSENT;
+        return buffer;
+    }
+
+
+    /**
+     * Returns number of students present on a date
+     * @param attend Attendance of the date
+     */
+    public int getPresentCount(Attendance attend) {
+        return presentCounts[attend.getColumn()];
+    }
+
+
+    /**
+     * Returns total minutes attended by all students on a date
+     * @param attend Attendance of the date
+     */
+    public int getTotalMinutes(Attendance attend) {
+        return aggregates.getDateTotal(attend.getColumn());
+    }
+
+
+    /**
+     * Returns the per-student aggregates of the attendance minutes
+     */
+    public StudentAggregates getAggregates() {
+        return aggregates;
+    }
+
+
+    /**
+     * Returns the percentage of loaded dates a student attended
+     * @param row Roster ordinal of the student
+     */
+    public int getAttendanceRate(int row) {
+        if (sessions.isEmpty())
+            return 0;
+        return (int) Math.round(100.0 * aggregates.getSessionCount(row) / sessions.size());
+    }
+
+
+    /**
+     * Returns the most recent attendance dates in date order
+     * @param count Maximum number of dates
+     */
+    public List<Attendance> getRecentAttendances(int count) {
+        List<Attendance> recent = new ArrayList<Attendance>();
+        for (Attendance attend : sessions.descendingMap().values()) {
+            if (recent.size() == count)
+                break;
+            recent.add(0, attend);
+        }
+        return recent;
+    }
+
+
+    /**
+     * Returns the students who attended at least the given minutes on a date
+     * @param attend Attendance of the date
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    public PresenceBitmap getPresence(Attendance attend, int minMinutes) {
+        return presence.get(attend.getColumn(), minMinutes);
+    }
+
+
+    /**
+     * Returns the students who attended fewer than the given minutes on a date, or not at all
+     * @param attend Attendance of the date
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    public PresenceBitmap getAbsence(Attendance attend, int minMinutes) {
+        return PresenceBitmap.all(studentCount).andNot(getPresence(attend, minMinutes));
+    }
+
+
+    /**
+     * Returns the students present on every one of the given dates
+     * @param attends Attendances of the dates
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    public PresenceBitmap presentOnAll(Collection<Attendance> attends, int minMinutes) {
+        PresenceBitmap result = PresenceBitmap.all(studentCount);
+        for (Attendance attend : attends)
+            result = result.and(getPresence(attend, minMinutes));
+        return result;
+    }
+
+
+    /**
+     * Returns the students present on at least one of the given dates
+     * @param attends Attendances of the dates
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    public PresenceBitmap presentOnAny(Collection<Attendance> attends, int minMinutes) {
+        PresenceBitmap result = PresenceBitmap.EMPTY;
+        for (Attendance attend : attends)
+            result = result.or(getPresence(attend, minMinutes));
+        return result;
+    }
+
+
+    /**
+     * Returns the students absent, or present for fewer than the given minutes,
+     * on at least a number of the given dates
+     * @param attends Attendances of the dates
+     * @param times Minimum number of dates missed
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    public PresenceBitmap absentOnAtLeast(Collection<Attendance> attends, int times, int minMinutes) {
+        List<PresenceBitmap> absences = new ArrayList<PresenceBitmap>();
+        for (Attendance attend : attends)
+            absences.add(getAbsence(attend, minMinutes));
+        return PresenceBitmap.atLeast(absences, times);
+    }
+
+
+    /**
+     * Returns the list of datewise attendance with total student count for each date
+     */
+    public LinkedHashMap<String, Integer> getAttendanceCount() {
+        LinkedHashMap<String, Integer> attendCount = new LinkedHashMap<String, Integer>();
+        for (Attendance attend : sessions.values())
+            attendCount.put(attend.getFormattedDate(), getPresentCount(attend));
+        return attendCount;
+    }
+
+
+    /**
+     * Returns the unmodifiable extra non-rostered students kept,
+     * with their minutes summed over all sessions
+     */
+    public Map<String, Integer> getExtras() {
+        if (extras == null) {
+            Map<String, Integer> merged = new LinkedHashMap<String, Integer>();
+            for (SessionExtras session : sessionExtras.values())
+                for (int i = 0; i < session.size(); i++)
+                    merged.merge(session.getAsurite(i), session.getMinutes(i), Integer::sum);
+            extras = Collections.unmodifiableMap(merged);
+        }
+        return extras;
+    }
+
+
+    /**
+     * Returns the extra non-rostered students of each session in date order
+     */
+    public Collection<SessionExtras> getSessionExtras() {
+        return sessionExtras.values();
+    }
+
+
+    /**
+     * Returns the extra non-rostered students of a session, or null when it has none recorded
+     * @param date Session date
+     */
+    public SessionExtras getSessionExtras(Date date) {
+        return sessionExtras.get(SessionDate.epochDay(date));
+    }
+
+
+    /**
+     * Returns the unmodifiable manifest entries of the loaded dates, keyed by attendance date,
+     * describing the files the attendance of this snapshot was loaded from
+     */
+    public Map<Date, IngestManifest.Entry> getManifestEntries() {
+        return manifestEntries;
+    }
+
+
+    /**
+     * Returns the attendances keyed by epoch day
+     */
+    NavigableMap<Long, Attendance> getSessions() {
+        return sessions;
+    }
+
+
+    /**
+     * Returns the minute columns indexed by date ordinal
+     */
+    int[][] getColumns() {
+        return columns;
+    }
+
+
+    /**
+     * Returns the present counts indexed by date ordinal
+     */
+    int[] getPresentCounts() {
+        return presentCounts;
+    }
+
+
+    /**
+     * Returns the extras keyed by epoch day
+     */
+    NavigableMap<Long, SessionExtras> getSessionExtrasMap() {
+        return sessionExtras;
+    }
+
+
+    /**
+     * Returns the presence bitmaps of the dates
+     */
+    PresenceIndex getPresenceIndex() {
+        return presence;
+    }
+
+
+    /**
+     * Returns a roster ordinal found in the indexes, or NOT_FOUND when the student
+     * was added to the blackboard's indexes after this snapshot was taken
+     * @param row Roster ordinal found
+     */
+    private int visible(int row) {
+        return row < studentCount ? row : RosterIndex.NOT_FOUND;
+    }
+
+
+
+    /**
+     * This class is the read-only list view over the students of the snapshot.
+     */
+    private class StudentList extends AbstractList<Student> implements RandomAccess {
+
+        @Override
+        public Student get(int index) {
+            return getStudent(index);
+        }
+
+        @Override
+        public int size() {
+            return studentCount;
+        }
+    }
+}
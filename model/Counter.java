@@ -0,0 +1,62 @@
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a named running count in the MetricsRegistry, such as files parsed.
+ * It can be incremented from many threads at once without contention.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class Counter {
+
+    private final String name;
+    private final LongAdder count;
+
+    Counter(String name) {
+        this.name = name;
+        this.count = new LongAdder();
+    }
+
+
+    /**
+     * Returns the metric name
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Adds one to the count
+     */
+    public void increment() {
+        count.increment();
+    }
+
+
+    /**
+     * Adds to the count
+     * @param amount Amount to be added
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+
+    /**
+     * Returns the current count
+     */
+    public long get() {
+        return count.sum();
+    }
+
+
+    /**
+     * Sets the count back to zero
+     */
+    void reset() {
+        count.reset();
+    }
+}
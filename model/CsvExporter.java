@@ -0,0 +1,214 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class writes the roster and attendance data held by the blackboard
+ * to a comma separated file.
+ * Rows are streamed straight from a snapshot of the student roster and attendance minutes
+ * through a buffered writer, one cell at a time, without building row strings.
+ * The output can optionally be gzip compressed and limited to a date range
+ * or a subset of students.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class CsvExporter {
+
+    private static final String DELIMITER = ", ";
+    private static final char SEPARATOR = '\n';
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_INTERVAL = 1 << 12;
+
+    private final Blackboard blackboard;
+
+    private boolean compressed;
+    private Date fromDate;
+    private Date toDate;
+    private BitSet students;
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    private final char[] digits;
+
+    public CsvExporter() {
+        this.blackboard = Blackboard.getInstance();
+        this.digits = new char[11];
+    }
+
+
+    /**
+     * Sets whether the output is gzip compressed
+     * @param compressed True to compress the output
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+
+    /**
+     * Limits the exported dates to an inclusive range, null leaves that end open
+     * @param fromDate First date to be exported, or null
+     * @param toDate Last date to be exported, or null
+     */
+    public void setDateRange(Date fromDate, Date toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+
+    /**
+     * Limits the exported rows to a subset of students, null exports every student
+     * @param students Roster ordinals of the students to be exported
+     */
+    public void setStudents(BitSet students) {
+        this.students = students;
+    }
+
+
+    /**
+     * Sets the listener notified with bytes and rows written so far
+     * @param progressListener Listener to be notified, or null
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+
+    /**
+     * Requests that the export stops; the file written so far is left incomplete
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+
+    /**
+     * Checks whether the export has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+
+    /**
+     * Writes the header and one row per selected student to a file
+     * @param file File to be written
+     * @return Number of student rows written
+     */
+    public long export(File file) throws IOException {
+        BlackboardSnapshot snapshot = blackboard.getSnapshot();
+        List<Student> roster = snapshot.getStudents();
+        List<Attendance> dates = new ArrayList<Attendance>(snapshot.getAttendances(fromDate, toDate));
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        OperationTimer timer = metrics.timer("table.save");
+        long start = timer.start();
+        long allocated = metrics.allocatedBytes();
+
+        long rows = 0;
+        CountingOutputStream counter;
+        try (FileOutputStream fileOut = new FileOutputStream(file)) {
+            counter = new CountingOutputStream(fileOut);
+            OutputStream out = compressed ? new GZIPOutputStream(counter, BUFFER_SIZE) : counter;
+
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                writer.write("ID" + DELIMITER + "First Name" + DELIMITER + "Last Name" + DELIMITER + "ASURITE");
+                for (Attendance attend : dates) {
+                    writer.write(DELIMITER);
+                    writer.write(attend.getFormattedDate());
+                }
+                writer.write(SEPARATOR);
+
+                for (int row = 0; row < roster.size() && !cancelled; row++) {
+                    if (students != null && !students.get(row))
+                        continue;
+
+                    Student stud = roster.get(row);
+                    writer.write(stud.getId());
+                    writer.write(DELIMITER);
+                    writer.write(stud.getFirstName());
+                    writer.write(DELIMITER);
+                    writer.write(stud.getLastName());
+                    writer.write(DELIMITER);
+                    writer.write(stud.getAsurite());
+                    for (Attendance attend : dates) {
+                        writer.write(DELIMITER);
+                        int minutes = snapshot.getMinutes(row, attend);
+                        if (minutes != AttendanceMatrix.ABSENT)
+                            writeInt(writer, minutes);
+                    }
+                    writer.write(SEPARATOR);
+
+                    if (++rows % PROGRESS_INTERVAL == 0 && progressListener != null)
+                        progressListener.progress(counter.getCount(), 0, rows);
+                }
+            }
+        }
+        timer.record(start, rows, counter.getCount(), metrics.allocatedBytes() - allocated);
+        if (progressListener != null)
+            progressListener.progress(counter.getCount(), counter.getCount(), rows);
+        return rows;
+    }
+
+
+    /**
+     * Writes the decimal digits of a number without creating a string
+     * @param writer Writer to be written to
+     * @param value Number to be written
+     */
+    private void writeInt(Writer writer, int value) throws IOException {
+        if (value < 0) {
+            writer.write(Integer.toString(value));
+            return;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        writer.write(digits, pos, digits.length - pos);
+    }
+
+
+    /**
+     * This class counts the bytes written to the file, after any compression.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
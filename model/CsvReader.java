@@ -0,0 +1,306 @@
+package model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * This class reads comma separated input files row by row directly from bytes.
+ * It reads the file through a FileChannel into a reusable buffer and records
+ * the start and end offset of every field in the current row, so callers can
+ * parse numbers or look up keys without creating any intermediate strings.
+ * Leading and trailing blanks around each field are skipped and blank lines are ignored.
+ *
+ * A CRC-32C hash of the file content is computed as the file is read.
+ *
+ * It is shared by ParseRoster and ParseAttendance.
+ *
+ * @author Shrinkhala Kayastha
+ * @version 1.0
+ */
+public class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte DELIMITER = ',';
+    private static final byte NEWLINE = '\n';
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private int limit;
+    private boolean endOfFile;
+    private long bytesConsumed;
+    private final CRC32C contentHash;
+
+    private int[] fieldStarts;
+    private int[] fieldEnds;
+    private int fieldCount;
+    private long rowCount;
+
+    public CsvReader(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+        this.position = 0;
+        this.limit = 0;
+        this.endOfFile = false;
+        this.contentHash = new CRC32C();
+        this.fieldStarts = new int[8];
+        this.fieldEnds = new int[8];
+    }
+
+
+    /**
+     * Advances to the next non-blank row of the file
+     * @return false once the end of file has been reached
+     */
+    public boolean nextRow() throws IOException {
+        while (true) {
+            int lineEnd = findNewline();
+            if (lineEnd < 0) {
+                if (endOfFile) {
+                    if (position == limit)
+                        return false;
+                    lineEnd = limit;
+                }
+                else {
+                    fill();
+                    continue;
+                }
+            }
+
+            int lineStart = position;
+            position = lineEnd < limit ? lineEnd + 1 : limit;
+            bytesConsumed += position - lineStart;
+            if (splitFields(lineStart, lineEnd)) {
+                rowCount++;
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Returns number of fields in the current row
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+
+    /**
+     * Returns the buffer holding the bytes of the current row
+     */
+    public byte[] getBuffer() {
+        return bytes;
+    }
+
+
+    /**
+     * Returns offset of a field in the buffer
+     * @param field Field number in the current row
+     */
+    public int getFieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+
+    /**
+     * Returns length of a field in bytes
+     * @param field Field number in the current row
+     */
+    public int getFieldLength(int field) {
+        return fieldEnds[field] - fieldStarts[field];
+    }
+
+
+    /**
+     * Returns a field decoded as a string
+     * @param field Field number in the current row
+     */
+    public String getString(int field) {
+        return new String(bytes, fieldStarts[field], getFieldLength(field), StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Returns a field parsed as an integer without creating a substring
+     * @param field Field number in the current row
+     */
+    public int getInt(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = false;
+
+        if (start < end && (bytes[start] == '-' || bytes[start] == '+')) {
+            negative = bytes[start] == '-';
+            start++;
+        }
+        if (start == end)
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE)
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        return (int) value;
+    }
+
+
+    /**
+     * Returns number of rows read so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+
+    /**
+     * Returns number of bytes consumed so far
+     */
+    public long getBytesRead() {
+        return bytesConsumed;
+    }
+
+
+    /**
+     * Returns total size of the file in bytes
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+
+    /**
+     * Returns the CRC-32C hash of the bytes read so far,
+     * which covers the whole file once nextRow has returned false
+     */
+    public long getContentHash() {
+        return contentHash.getValue();
+    }
+
+
+    /**
+     * Closes the underlying file channel
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * Returns offset of the next newline in the buffer, or -1 when more data is needed
+     */
+    private int findNewline() {
+        for (int i = position; i < limit; i++)
+            if (bytes[i] == NEWLINE)
+                return i;
+        return -1;
+    }
+
+
+    /**
+     * Moves the unread part of the buffer to its front and reads more of the file,
+     * growing the buffer when a single row does not fit in it
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+            position = 0;
+            limit = remaining;
+        }
+        else if (limit == bytes.length) {
+            ByteBuffer larger = ByteBuffer.allocate(bytes.length * 2);
+            larger.put(bytes, 0, limit);
+            buffer = larger;
+            bytes = buffer.array();
+        }
+
+        buffer.clear();
+        buffer.position(limit);
+        int read = channel.read(buffer);
+        if (read < 0)
+            endOfFile = true;
+        else {
+            contentHash.update(bytes, limit, read);
+            limit += read;
+        }
+    }
+
+
+    /**
+     * Records the trimmed field boundaries of a row
+     * @param start Offset of the first byte of the row
+     * @param end Offset just past the last byte of the row
+     * @return false when the row is blank
+     */
+    private boolean splitFields(int start, int end) {
+        while (end > start && isBlank(bytes[end - 1]))
+            end--;
+        while (start < end && isBlank(bytes[start]))
+            start++;
+        if (start == end)
+            return false;
+
+        fieldCount = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || bytes[i] == DELIMITER) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Records a field with its surrounding blanks removed
+     * @param start Offset of the first byte of the field
+     * @param end Offset just past the last byte of the field
+     */
+    private void addField(int start, int end) {
+        while (start < end && isBlank(bytes[start]))
+            start++;
+        while (end > start && isBlank(bytes[end - 1]))
+            end--;
+
+        if (fieldCount == fieldStarts.length) {
+            int[] starts = new int[fieldCount * 2];
+            int[] ends = new int[fieldCount * 2];
+            System.arraycopy(fieldStarts, 0, starts, 0, fieldCount);
+            System.arraycopy(fieldEnds, 0, ends, 0, fieldCount);
+            fieldStarts = starts;
+            fieldEnds = ends;
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+
+    /**
+     * Checks whether a byte is a blank to be trimmed
+     * @param b Byte to be checked
+     */
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,136 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class delivers blackboard change events to the registered listeners.
+ * Events posted during one update, which is a single change or a whole batch,
+ * are queued and coalesced, then published together when the update ends:
+ * 1. A replaced roster makes every earlier student and session event in the batch obsolete.
+ * 2. Adjacent ranges of added students are merged into one range.
+ * 3. A session that is replaced after being added in the same batch is only reported as added.
+ * 4. Repeated replacements of one session, and repeated extras changes, are reported once.
+ *
+ * Events are posted and published while the blackboard's lock is held,
+ * but delivered only after it is released, so a slow listener never holds up other writers.
+ * Published updates are delivered one at a time in the order they were published,
+ * by whichever updating thread gets to them first.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class EventBus {
+
+    private final List<BlackboardListener> listeners;
+    private final List<BlackboardEvent> pending;
+    private final ConcurrentLinkedQueue<List<BlackboardEvent>> published;
+    private final ReentrantLock deliveryLock;
+
+    public EventBus() {
+        this.listeners = new CopyOnWriteArrayList<BlackboardListener>();
+        this.pending = new ArrayList<BlackboardEvent>();
+        this.published = new ConcurrentLinkedQueue<List<BlackboardEvent>>();
+        this.deliveryLock = new ReentrantLock();
+    }
+
+
+    /**
+     * Registers a listener
+     * @param listener Listener to be notified
+     */
+    public void addListener(BlackboardListener listener) {
+        listeners.add(listener);
+    }
+
+
+    /**
+     * Unregisters a listener
+     * @param listener Listener to be removed
+     */
+    public void removeListener(BlackboardListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    /**
+     * Posts an event of the running update, to be published when the update ends.
+     * Must be called while holding the blackboard's lock.
+     * @param event Event to be posted
+     */
+    public void post(BlackboardEvent event) {
+        if (!listeners.isEmpty())
+            queue(event);
+    }
+
+
+    /**
+     * Ends the running update, publishing its queued events for delivery.
+     * Must be called while holding the blackboard's lock.
+     */
+    public void publish() {
+        if (pending.isEmpty())
+            return;
+        published.add(new ArrayList<BlackboardEvent>(pending));
+        pending.clear();
+    }
+
+
+    /**
+     * Delivers every published update to every listener in publishing order.
+     * Must be called without holding the blackboard's lock.
+     * Returns at once when another thread is delivering, since that thread
+     * keeps delivering until no published update is left.
+     */
+    public void deliver() {
+        while (!published.isEmpty() && deliveryLock.tryLock()) {
+            try {
+                List<BlackboardEvent> events;
+                while ((events = published.poll()) != null)
+                    for (BlackboardListener listener : listeners)
+                        listener.blackboardChanged(events);
+            } finally {
+                deliveryLock.unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Adds an event to the queue, coalescing it with the events already queued
+     * @param event Event to be queued
+     */
+    private void queue(BlackboardEvent event) {
+        switch (event.getType()) {
+            case ROSTER_REPLACED:
+                pending.removeIf(queued -> queued.getType() != BlackboardEvent.Type.EXTRAS_CHANGED);
+                break;
+            case STUDENTS_ADDED:
+                for (BlackboardEvent queued : pending)
+                    if (queued.getType() == BlackboardEvent.Type.ROSTER_REPLACED)
+                        return;
+                break;
+            case SESSION_REPLACED:
+                for (BlackboardEvent queued : pending)
+                    if (queued.getType() == BlackboardEvent.Type.SESSION_ADDED
+                            && queued.getAttendance().equals(event.getAttendance()))
+                        return;
+                break;
+            default:
+                break;
+        }
+
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            BlackboardEvent merged = pending.get(i).coalesce(event);
+            if (merged != null) {
+                pending.remove(i);
+                event = merged;
+                break;
+            }
+        }
+        pending.add(event);
+    }
+}
@@ -0,0 +1,306 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * This class tracks the non-rostered attendees of one attendance file while it is parsed,
+ * in memory bounded by the number of attendees to be kept rather than by the size of the guest list.
+ *
+ * Total minutes are summed exactly, and distinct attendees are counted with a HyperLogLog
+ * of 4096 one-byte registers, which estimates huge guest lists to within a few percent.
+ * With no attendees to be kept, that is all: ASURITEs are only hashed, never stored.
+ *
+ * Otherwise the attendees with the most minutes are tracked with the Space-Saving algorithm
+ * in a table of at most four times the number kept. While the guest list fits the table,
+ * every attendee and its merged minutes are exact, and so is the attendee count.
+ * Once it does not, a newcomer takes the entry of the attendee with the fewest minutes
+ * and inherits them as its error, so every attendee with more minutes than that minimum
+ * is guaranteed to be in the table. The attendees kept are ranked and reported by their minutes
+ * less that error, which are the minutes counted since they entered the table and never more
+ * than they attended.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+final class ExtrasSketch {
+
+    private static final int TABLE_FACTOR = 4;
+    private static final int MAX_CAPACITY = 1 << 24;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int REGISTER_BITS = 12;
+
+    private final int capacity;
+    private final byte[] registers;
+    private long totalMinutes;
+    private boolean overflowed;
+
+    private byte[][] keys;
+    private long[] hashes;
+    private int[] minutes;
+    private int[] errors;
+    private int[] heap;
+    private int[] positions;
+    private int[] slots;
+    private int size;
+
+    ExtrasSketch(int limit) {
+        this.capacity = (int) Math.min((long) Math.max(0, limit) * TABLE_FACTOR, MAX_CAPACITY);
+        this.registers = new byte[1 << REGISTER_BITS];
+        if (capacity > 0)
+            allocate(Math.min(capacity, INITIAL_CAPACITY));
+    }
+
+
+    /**
+     * Records a non-rostered attendee read as UTF-8 bytes, merging duplicate rows
+     * @param bytes Buffer holding the ASURITE
+     * @param offset Offset of the ASURITE in the buffer
+     * @param length Length of the ASURITE in bytes
+     * @param added Minutes attended
+     */
+    void add(byte[] bytes, int offset, int length, int added) {
+        long hash = hash(bytes, offset, length);
+        totalMinutes += added;
+        count(hash);
+        if (capacity == 0)
+            return;
+
+        int entry = slots[find(hash, bytes, offset, length)] - 1;
+        if (entry >= 0) {
+            minutes[entry] += added;
+            siftDown(positions[entry]);
+            return;
+        }
+
+        if (size < capacity) {
+            if (size == keys.length)
+                allocate(Math.min(capacity, size * 2));
+            entry = size++;
+            minutes[entry] = added;
+            errors[entry] = 0;
+            heap[entry] = entry;
+            positions[entry] = entry;
+            siftUp(entry);
+        }
+        else {
+            overflowed = true;
+            entry = heap[0];
+            unlink(entry);
+            errors[entry] = minutes[entry];
+            minutes[entry] += added;
+            siftDown(0);
+        }
+        keys[entry] = Arrays.copyOfRange(bytes, offset, offset + length);
+        hashes[entry] = hash;
+        slots[find(hash, bytes, offset, length)] = entry + 1;
+    }
+
+
+    /**
+     * Returns number of distinct attendees, exact while they all fit the table and estimated after
+     */
+    int getAttendeeCount() {
+        if (capacity > 0 && !overflowed)
+            return size;
+        return Math.max(size, estimate());
+    }
+
+
+    /**
+     * Returns the extras of a session with the attendees of the table that have the most minutes
+     * counted since they entered it, most first, ties broken by their entry in the table
+     * @param date Session date
+     * @param limit Maximum number of attendees kept
+     */
+    SessionExtras build(Date date, int limit) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> counted(a) != counted(b) ? Integer.compare(counted(b), counted(a)) : Integer.compare(a, b));
+
+        int kept = Math.min(size, Math.max(0, limit));
+        SymbolTable symbols = new SymbolTable();
+        int[] codes = new int[kept];
+        int[] keptMinutes = new int[kept];
+        for (int i = 0; i < kept; i++) {
+            codes[i] = symbols.intern(keys[order[i]], 0, keys[order[i]].length);
+            keptMinutes[i] = counted(order[i]);
+        }
+        return SessionExtras.of(date, getAttendeeCount(), totalMinutes, symbols, codes, keptMinutes);
+    }
+
+
+    /**
+     * Returns the minutes of an entry counted since its attendee entered the table
+     * @param entry Entry in the table
+     */
+    private int counted(int entry) {
+        return minutes[entry] - errors[entry];
+    }
+
+
+    /**
+     * Returns the slot of an attendee in the hash table, or the empty slot where it belongs
+     * @param hash Hash of the ASURITE
+     * @param bytes Buffer holding the ASURITE
+     * @param offset Offset of the ASURITE in the buffer
+     * @param length Length of the ASURITE in bytes
+     */
+    private int find(long hash, byte[] bytes, int offset, int length) {
+        int mask = slots.length - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0)
+                return slot;
+            if (hashes[entry] == hash && Arrays.equals(keys[entry], 0, keys[entry].length, bytes, offset, offset + length))
+                return slot;
+        }
+    }
+
+
+    /**
+     * Removes an entry from the hash table, shifting back the entries probed past it
+     * @param entry Entry to be removed
+     */
+    private void unlink(int entry) {
+        int mask = slots.length - 1;
+        int hole = (int) hashes[entry] & mask;
+        while (slots[hole] != entry + 1)
+            hole = (hole + 1) & mask;
+        slots[hole] = 0;
+
+        for (int slot = (hole + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int home = (int) hashes[slots[slot] - 1] & mask;
+            boolean reachable = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!reachable) {
+                slots[hole] = slots[slot];
+                slots[slot] = 0;
+                hole = slot;
+            }
+        }
+    }
+
+
+    /**
+     * Grows the entry arrays and rebuilds the hash table at twice their length
+     * @param length New number of entries
+     */
+    private void allocate(int length) {
+        keys = keys == null ? new byte[length][] : Arrays.copyOf(keys, length);
+        hashes = hashes == null ? new long[length] : Arrays.copyOf(hashes, length);
+        minutes = minutes == null ? new int[length] : Arrays.copyOf(minutes, length);
+        errors = errors == null ? new int[length] : Arrays.copyOf(errors, length);
+        heap = heap == null ? new int[length] : Arrays.copyOf(heap, length);
+        positions = positions == null ? new int[length] : Arrays.copyOf(positions, length);
+
+        slots = new int[Integer.highestOneBit(length) * 4];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = (int) hashes[entry] & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = entry + 1;
+        }
+    }
+
+
+    /**
+     * Moves a heap position up while its entry has fewer minutes than its parent
+     * @param position Heap position
+     */
+    private void siftUp(int position) {
+        int entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (minutes[heap[parent]] <= minutes[entry])
+                break;
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(entry, position);
+    }
+
+
+    /**
+     * Moves a heap position down while its entry has more minutes than a child
+     * @param position Heap position
+     */
+    private void siftDown(int position) {
+        int entry = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && minutes[heap[child + 1]] < minutes[heap[child]])
+                child++;
+            if (minutes[entry] <= minutes[heap[child]])
+                break;
+            place(heap[child], position);
+            position = child;
+        }
+        place(entry, position);
+    }
+
+
+    /**
+     * Puts an entry at a heap position
+     * @param entry Entry to be placed
+     * @param position Heap position
+     */
+    private void place(int entry, int position) {
+        heap[position] = entry;
+        positions[entry] = position;
+    }
+
+
+    /**
+     * Adds an attendee's hash to the HyperLogLog registers
+     * @param hash Hash of the ASURITE
+     */
+    private void count(long hash) {
+        int register = (int) (hash >>> (64 - REGISTER_BITS));
+        int rank = Long.numberOfLeadingZeros((hash << REGISTER_BITS) | (1L << (REGISTER_BITS - 1))) + 1;
+        if (rank > registers[register])
+            registers[register] = (byte) rank;
+    }
+
+
+    /**
+     * Returns the HyperLogLog estimate of the distinct attendees,
+     * using linear counting while many registers are still empty
+     */
+    private int estimate() {
+        double m = registers.length;
+        double sum = 0;
+        int empty = 0;
+        for (byte rank : registers) {
+            sum += 1.0 / (1L << rank);
+            if (rank == 0)
+                empty++;
+        }
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+        if (estimate <= 2.5 * m && empty > 0)
+            estimate = m * Math.log(m / empty);
+        return (int) Math.round(estimate);
+    }
+
+
+    /**
+     * Returns a well mixed 64 bit hash of a byte slice
+     * @param bytes Buffer holding the string
+     * @param offset Offset of the string in the buffer
+     * @param length Length of the string in bytes
+     */
+    private static long hash(byte[] bytes, int offset, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++)
+            h = (h ^ (bytes[i] & 0xFF)) * 0x100000001b3L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+/**
+ * This class estimates the heap taken by the arrays and objects of the model,
+ * assuming a 64 bit JVM with compressed references, as used on the lab machines.
+ * Every object has a 12 byte header, every array a 16 byte header,
+ * and every object or array is padded to a multiple of 8 bytes.
+ * The estimates are for monitoring the relative size of structures, not for exact accounting.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+final class HeapEstimate {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private HeapEstimate() {
+    }
+
+
+    /**
+     * Returns estimated bytes of an object
+     * @param fieldBytes Total bytes of the object's fields
+     */
+    static long ofObject(long fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+
+    /**
+     * Returns estimated bytes of a byte array
+     * @param array Array to be measured, or null
+     */
+    static long of(byte[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + (long) array.length);
+    }
+
+
+    /**
+     * Returns estimated bytes of an int array
+     * @param array Array to be measured, or null
+     */
+    static long of(int[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + 4L * array.length);
+    }
+
+
+    /**
+     * Returns estimated bytes of a long array
+     * @param array Array to be measured, or null
+     */
+    static long of(long[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + 8L * array.length);
+    }
+
+
+    /**
+     * Returns estimated bytes of an array of references, not counting the objects referred to
+     * @param array Array to be measured, or null
+     */
+    static long of(Object[] array) {
+        return array == null ? 0 : align(ARRAY_HEADER + (long) REFERENCE * array.length);
+    }
+
+
+    /**
+     * Returns a size rounded up to a multiple of 8 bytes
+     * @param bytes Size to be rounded
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,150 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a named distribution of values in the MetricsRegistry, such as latencies in nanoseconds.
+ * Values are counted in fixed buckets, eight per power of two, so recording a value
+ * is a couple of atomic adds and percentiles are accurate to within one bucket,
+ * about 12 percent, whatever the number of values recorded.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    Histogram(String name) {
+        this.name = name;
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+
+    /**
+     * Returns the metric name
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Records a value, negative values being recorded as zero
+     * @param value Value to be recorded
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()))
+            if (max.compareAndSet(current, value))
+                break;
+    }
+
+
+    /**
+     * Returns number of values recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+
+    /**
+     * Returns the sum of the values recorded
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+
+    /**
+     * Returns the largest value recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * Returns the mean of the values recorded, or 0 when there are none
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+
+    /**
+     * Returns the value below which the given fraction of the values fall,
+     * reported as the upper bound of its bucket
+     * @param fraction Fraction between 0 and 1, such as 0.99
+     */
+    public long getPercentile(double fraction) {
+        long n = getCount();
+        if (n == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank)
+                return Math.min(upperBound(i), getMax());
+        }
+        return getMax();
+    }
+
+
+    /**
+     * Removes all recorded values
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+
+    /**
+     * Returns the bucket of a value
+     * @param value Non-negative value
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+
+    /**
+     * Returns the largest value counted in a bucket
+     * @param bucket Bucket index
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,115 @@
+package model;
+
+import java.io.File;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class records which file each attendance date was loaded from,
+ * together with the file's size, modification time and content hash.
+ * When attendance files are selected again, untouched files are skipped
+ * without being read, and only dates whose source has changed are parsed and replaced.
+ *
+ * @author Shrinkhala Kayastha
+ * @version 1.0
+ */
+public class IngestManifest {
+
+    /**
+     * This class describes the source file of one attendance date.
+     */
+    public static class Entry {
+
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final long contentHash;
+
+        public Entry(String path, long size, long lastModified, long contentHash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+        }
+
+        /**
+         * Returns absolute path of the source file
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns size of the source file in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns modification time of the source file
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns content hash of the source file
+         */
+        public long getContentHash() {
+            return contentHash;
+        }
+
+        /**
+         * Checks whether a file is the recorded file, unmodified, judging by path, size and modification time
+         * @param file File to be checked
+         */
+        public boolean isUnchanged(File file) {
+            return path.equals(file.getAbsolutePath())
+                && size == file.length()
+                && lastModified == file.lastModified();
+        }
+    }
+
+    private final Map<Date, Entry> entries;
+
+    public IngestManifest() {
+        this.entries = new LinkedHashMap<Date, Entry>();
+    }
+
+
+    /**
+     * Returns the source entry of an attendance date, or null
+     * @param date Attendance date
+     */
+    public synchronized Entry get(Date date) {
+        return entries.get(date);
+    }
+
+
+    /**
+     * Records the source of an attendance date
+     * @param date Attendance date
+     * @param entry Source file entry
+     */
+    public synchronized void put(Date date, Entry entry) {
+        entries.put(date, entry);
+    }
+
+
+    /**
+     * Returns a copy of all entries keyed by attendance date
+     */
+    public synchronized Map<Date, Entry> getEntries() {
+        return new LinkedHashMap<Date, Entry>(entries);
+    }
+
+
+    /**
+     * Removes all entries
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package model;
+
+/**
+ * This class exposes the ingest statistics recorded in the MetricsRegistry over JMX:
+ * how long the latest roster parse and attendance ingest took,
+ * and how many files, rows and bytes have been parsed since startup or the last reset.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class IngestMonitor implements IngestMonitorMBean {
+
+    public static final String OBJECT_NAME = "attendance:type=Ingest";
+
+    private final MetricsRegistry metrics;
+
+    public IngestMonitor() {
+        this.metrics = MetricsRegistry.getInstance();
+    }
+
+
+    /**
+     * Returns number of attendance ingests run, each parsing a set of files
+     */
+    @Override
+    public long getIngestCount() {
+        return metrics.timer("attendance.ingest").getCount();
+    }
+
+
+    /**
+     * Returns duration of the latest attendance ingest in milliseconds
+     */
+    @Override
+    public double getLastIngestMillis() {
+        return metrics.timer("attendance.ingest").getLastNanos() / 1e6;
+    }
+
+
+    /**
+     * Returns rows parsed by the latest attendance ingest
+     */
+    @Override
+    public long getLastIngestRows() {
+        return metrics.timer("attendance.ingest").getLastRows();
+    }
+
+
+    /**
+     * Returns duration of the latest roster parse in milliseconds
+     */
+    @Override
+    public double getLastRosterMillis() {
+        return metrics.timer("roster.parse").getLastNanos() / 1e6;
+    }
+
+
+    /**
+     * Returns number of attendance files parsed
+     */
+    @Override
+    public long getFilesParsed() {
+        return metrics.counter("attendance.files").get();
+    }
+
+
+    /**
+     * Returns number of roster and attendance rows parsed
+     */
+    @Override
+    public long getRowsParsed() {
+        return metrics.timer("roster.parse").getRows() + metrics.timer("attendance.parse").getRows();
+    }
+
+
+    /**
+     * Returns number of roster and attendance bytes parsed
+     */
+    @Override
+    public long getBytesParsed() {
+        return metrics.timer("roster.parse").getBytes() + metrics.timer("attendance.parse").getBytes();
+    }
+
+
+    /**
+     * Returns attendance rows parsed per second of parse time
+     */
+    @Override
+    public double getAttendanceRowsPerSecond() {
+        return metrics.timer("attendance.parse").getRowsPerSecond();
+    }
+
+
+    /**
+     * Returns a one line summary of all timed operations
+     */
+    @Override
+    public String getSummary() {
+        return metrics.getSummary();
+    }
+
+
+    /**
+     * Removes all recorded metrics
+     */
+    @Override
+    public void resetMetrics() {
+        metrics.reset();
+    }
+}
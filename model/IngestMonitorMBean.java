@@ -0,0 +1,62 @@
+package model;
+
+/**
+ * This interface is the JMX management interface of IngestMonitor,
+ * registered as attendance:type=Ingest.
+ * Each getter is a read-only attribute and every other method is an operation.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public interface IngestMonitorMBean {
+
+    /**
+     * Returns number of attendance ingests run, each parsing a set of files
+     */
+    long getIngestCount();
+
+    /**
+     * Returns duration of the latest attendance ingest in milliseconds
+     */
+    double getLastIngestMillis();
+
+    /**
+     * Returns rows parsed by the latest attendance ingest
+     */
+    long getLastIngestRows();
+
+    /**
+     * Returns duration of the latest roster parse in milliseconds
+     */
+    double getLastRosterMillis();
+
+    /**
+     * Returns number of attendance files parsed
+     */
+    long getFilesParsed();
+
+    /**
+     * Returns number of roster and attendance rows parsed
+     */
+    long getRowsParsed();
+
+    /**
+     * Returns number of roster and attendance bytes parsed
+     */
+    long getBytesParsed();
+
+    /**
+     * Returns attendance rows parsed per second of parse time
+     */
+    double getAttendanceRowsPerSecond();
+
+    /**
+     * Returns a one line summary of all timed operations
+     */
+    String getSummary();
+
+    /**
+     * Removes all recorded metrics
+     */
+    void resetMetrics();
+}
@@ -0,0 +1,172 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This is a Singleton class that holds the application's runtime metrics:
+ * counters and operation timers, each created on first use by name.
+ * The parsers, the display panel and the exporter record into it as they run,
+ * and it can summarize throughput and latency for the status bar
+ * or dump every metric to a CSV file, so runs of different releases can be compared.
+ *
+ * Metric names are dotted, with the component first, such as attendance.parse.
+ * The summary covers only the timers of ingest, render and export, so it stays short enough for the status bar.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class MetricsRegistry {
+    private static volatile MetricsRegistry INSTANCE;
+
+    private static final String[] SUMMARY_TIMERS = {
+        "roster.parse", "attendance.parse", "attendance.ingest", "display.update", "display.paint", "table.save"
+    };
+
+    private static final String HEADER = "metric,type,count,total_ms,mean_ms,p50_ms,p90_ms,p99_ms,max_ms,"
+        + "rows,bytes,rows_per_sec,bytes_per_sec,alloc_bytes_per_row";
+
+    private final ConcurrentHashMap<String, Counter> counters;
+    private final ConcurrentHashMap<String, OperationTimer> timers;
+    private final com.sun.management.ThreadMXBean allocationBean;
+
+    private MetricsRegistry() {
+        this.counters = new ConcurrentHashMap<String, Counter>();
+        this.timers = new ConcurrentHashMap<String, OperationTimer>();
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+            this.allocationBean = (com.sun.management.ThreadMXBean) bean;
+        else
+            this.allocationBean = null;
+    }
+
+    
+    /** 
+     * Returns instantiated object of this class
+     */
+    public static MetricsRegistry getInstance() {
+        if (INSTANCE == null) {
+            synchronized (MetricsRegistry.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MetricsRegistry();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    
+    /** 
+     * Returns the counter with a name, creating it on first use
+     * @param name Metric name
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    
+    /** 
+     * Returns the operation timer with a name, creating it on first use
+     * @param name Metric name
+     */
+    public OperationTimer timer(String name) {
+        return timers.computeIfAbsent(name, OperationTimer::new);
+    }
+
+    
+    /** 
+     * Returns bytes allocated so far by the current thread, or 0 when not supported.
+     * The difference between two readings on one thread is the allocation in between.
+     */
+    public long allocatedBytes() {
+        if (allocationBean == null)
+            return 0;
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    
+    /** 
+     * Returns a short summary of the ingest, render and export operations run so far:
+     * throughput of operations that process rows, and the 99th percentile latency of the others
+     */
+    public String getSummary() {
+        List<String> parts = new ArrayList<String>();
+        for (String name : SUMMARY_TIMERS) {
+            OperationTimer timer = timers.get(name);
+            if (timer == null || timer.getCount() == 0)
+                continue;
+            if (timer.getRows() > 0 && !timer.getName().startsWith("display."))
+                parts.add(String.format(Locale.ROOT, "%s %s rows/s", timer.getName(), compact(timer.getRowsPerSecond())));
+            else
+                parts.add(String.format(Locale.ROOT, "%s p99 %.1f ms", timer.getName(), millis(timer.getLatency().getPercentile(0.99))));
+        }
+        return String.join(" | ", parts);
+    }
+
+    
+    /** 
+     * Writes every metric to a CSV file, one row per metric in name order
+     * @param file File to be written
+     */
+    public void dump(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            out.println(HEADER);
+            for (OperationTimer timer : new TreeMap<String, OperationTimer>(timers).values()) {
+                Histogram latency = timer.getLatency();
+                out.println(String.format(Locale.ROOT, "%s,timer,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%.1f,%.1f,%.1f",
+                    timer.getName(), timer.getCount(), millis(latency.getSum()), latency.getMean() / 1e6,
+                    millis(latency.getPercentile(0.5)), millis(latency.getPercentile(0.9)),
+                    millis(latency.getPercentile(0.99)), millis(latency.getMax()),
+                    timer.getRows(), timer.getBytes(), timer.getRowsPerSecond(), timer.getBytesPerSecond(),
+                    timer.getAllocatedBytesPerRow()));
+            }
+            for (Map.Entry<String, Counter> counter : new TreeMap<String, Counter>(counters).entrySet())
+                out.println(counter.getKey() + ",counter," + counter.getValue().get() + ",,,,,,,,,,,");
+        }
+    }
+
+    
+    /** 
+     * Clears every metric, keeping the metrics themselves registered
+     */
+    public void reset() {
+        for (Counter counter : counters.values())
+            counter.reset();
+        for (OperationTimer timer : timers.values())
+            timer.reset();
+    }
+
+    
+    /** 
+     * Converts nanoseconds to milliseconds
+     * @param nanos Nanoseconds
+     */
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    
+    /** 
+     * Formats a rate with a k or M suffix
+     * @param value Rate to be formatted
+     */
+    private static String compact(double value) {
+        if (value >= 1e6)
+            return String.format(Locale.ROOT, "%.1fM", value / 1e6);
+        if (value >= 1e3)
+            return String.format(Locale.ROOT, "%.1fk", value / 1e3);
+        return String.format(Locale.ROOT, "%.0f", value);
+    }
+}
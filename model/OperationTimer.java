@@ -0,0 +1,183 @@
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a named timed operation in the MetricsRegistry, such as parsing one attendance file.
+ * Each run records its latency into a histogram, along with the rows and bytes it processed
+ * and the bytes it allocated, from which throughput and allocation per row are derived.
+ *
+ * A run is timed by taking start before the operation and passing it to stop or record:
+ *     long start = timer.start();
+ *     ...
+ *     timer.record(start, rows, bytes, allocatedBytes);
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class OperationTimer {
+
+    private final String name;
+    private final Histogram latency;
+    private final LongAdder rows;
+    private final LongAdder bytes;
+    private final LongAdder allocatedBytes;
+    private volatile long lastNanos;
+    private volatile long lastRows;
+
+    OperationTimer(String name) {
+        this.name = name;
+        this.latency = new Histogram(name);
+        this.rows = new LongAdder();
+        this.bytes = new LongAdder();
+        this.allocatedBytes = new LongAdder();
+    }
+
+
+    /**
+     * Returns the metric name
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Returns the start time of a run in nanoseconds
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+
+    /**
+     * Records a run that started at the given time
+     * @param start Start time returned by start
+     */
+    public void stop(long start) {
+        lastNanos = System.nanoTime() - start;
+        lastRows = 0;
+        latency.record(lastNanos);
+    }
+
+
+    /**
+     * Records a run that started at the given time along with the work it did
+     * @param start Start time returned by start
+     * @param rowCount Rows processed by the run
+     * @param byteCount Bytes read or written by the run
+     * @param allocated Bytes allocated by the run, or 0 when unknown
+     */
+    public void record(long start, long rowCount, long byteCount, long allocated) {
+        lastNanos = System.nanoTime() - start;
+        lastRows = rowCount;
+        latency.record(lastNanos);
+        rows.add(rowCount);
+        bytes.add(byteCount);
+        allocatedBytes.add(Math.max(0, allocated));
+    }
+
+
+    /**
+     * Returns number of runs recorded
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+
+    /**
+     * Returns the duration of the latest run in nanoseconds, or 0 when none was recorded
+     */
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+
+    /**
+     * Returns rows processed by the latest run
+     */
+    public long getLastRows() {
+        return lastRows;
+    }
+
+
+    /**
+     * Returns the latency distribution of the runs in nanoseconds
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+
+    /**
+     * Returns total rows processed
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+
+    /**
+     * Returns total bytes read or written
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+
+    /**
+     * Returns total bytes allocated
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+
+    /**
+     * Returns rows processed per second of run time
+     */
+    public double getRowsPerSecond() {
+        return perSecond(getRows());
+    }
+
+
+    /**
+     * Returns bytes read or written per second of run time
+     */
+    public double getBytesPerSecond() {
+        return perSecond(getBytes());
+    }
+
+
+    /**
+     * Returns bytes allocated per row processed, or 0 when no rows were processed
+     */
+    public double getAllocatedBytesPerRow() {
+        long n = getRows();
+        return n == 0 ? 0 : (double) getAllocatedBytes() / n;
+    }
+
+
+    /**
+     * Removes all recorded runs
+     */
+    void reset() {
+        latency.reset();
+        rows.reset();
+        bytes.reset();
+        allocatedBytes.reset();
+        lastNanos = 0;
+        lastRows = 0;
+    }
+
+
+    /**
+     * Returns an amount per second of total run time
+     * @param amount Amount processed
+     */
+    private double perSecond(long amount) {
+        long nanos = latency.getSum();
+        return nanos == 0 ? 0 : amount * 1e9 / nanos;
+    }
+}
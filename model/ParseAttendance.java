@@ -1,16 +1,20 @@
 package model;
 
 import java.io.File;
-import java.util.Scanner;
 
-import view.TablePane;
-
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Date;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class contains methods to handle input files pertaining to 
@@ -18,6 +22,9 @@ import java.util.HashMap;
  * Attendance data comprises the following columns for each row of student data
  * 1. ASURITE - indicates unique alphabetic student ID
  * 2. Minutes - indicates time in minutes for which student attended lecture
+ *
+ * Negative minutes are recorded as 0, so such a row still counts as attended
+ * and can never be mistaken for AttendanceMatrix.ABSENT.
  * 
  * @author Shrinkhala Kayastha
  * @version 1.0
@@ -25,45 +32,198 @@ import java.util.HashMap;
 
 public class ParseAttendance {
 
-    private Scanner myReader;
+    public enum Outcome {
+        ADDED,
+        REPLACED,
+        UNCHANGED
+    }
 
     private Blackboard blackboard;
-    private TablePane tableData;
+    private IngestManifest manifest;
+    private final MetricsRegistry metrics;
+
+    private static final int PROGRESS_INTERVAL = 1 << 14;
+    private static final String SKIPPED_WITHOUT_DATE = "no date in file name";
 
-    private Map<String, Integer> extraAttendees;
+    private int extrasLimit;
+    private int parallelism;
+
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+    private final AtomicLong bytesRead;
+    private final AtomicLong rowsRead;
+    private long totalBytes;
+    private final List<File> skippedFiles;
 
     public ParseAttendance() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParseAttendance(int parallelism) {
         this.blackboard = Blackboard.getInstance();
-        this.tableData = TablePane.getInstance();
-        this.extraAttendees = new HashMap<String, Integer>();
+        this.manifest = blackboard.getManifest();
+        this.metrics = MetricsRegistry.getInstance();
+        this.bytesRead = new AtomicLong();
+        this.rowsRead = new AtomicLong();
+        this.skippedFiles = new ArrayList<File>();
+        this.extrasLimit = SessionExtras.DEFAULT_LIMIT;
+        setParallelism(parallelism);
+    }
+
+    
+    /** 
+     * Returns number of attendance files parsed concurrently
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    
+    /** 
+     * Sets number of attendance files parsed concurrently, 1 parses them serially
+     * @param parallelism Number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    
+    /** 
+     * Sets the most non-rostered attendees kept per date, those with the most minutes,
+     * 0 keeps only their count and total minutes
+     * @param extrasLimit Maximum number of attendees kept
+     */
+    public void setExtrasLimit(int extrasLimit) {
+        this.extrasLimit = Math.max(0, extrasLimit);
+    }
+
+    
+    /** 
+     * Sets the listener notified as attendance files are parsed
+     * @param progressListener Listener to be notified, or null
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    
+    /** 
+     * Requests that parsing stops; files already parsed are discarded
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    
+    /** 
+     * Checks whether parsing has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
     }
 
     
     /** 
      * Parses the user inputted student attendance files
-     * and extracts dates from filename
-     * @param file Files to be parsed
+     * and extracts dates from filename.
+     * Files are parsed independently, serially or in parallel,
+     * and committed to the blackboard in date order with a single notification.
+     * @param files Files to be parsed
      */
     public void parseAttendance(File[] files) {
+        List<ParsedAttendance> parsed = parseFiles(selectFiles(files));
+        blackboard.beginBatch();
+        try {
+            for (ParsedAttendance result : parsed)
+                commit(result);
+        } finally {
+            blackboard.endBatch();
+        }
+    }
 
-
-        String dateStr = "", dateTable = "";
-        SimpleDateFormat dt1;
+    
+    /** 
+     * Returns the files that need parsing, keyed by date in date order:
+     * files for dates that are not loaded yet, and files for loaded dates
+     * whose source file has been modified since it was loaded.
+     * When several files share a date only the first one is kept,
+     * and files whose name holds no date are skipped and reported to the progress listener.
+     * Checking for modified files reads file metadata, so this should not run on the event thread.
+     * @param files Files to be checked
+     */
+    public Map<Date, File> selectFiles(File[] files) {
+        Map<Date, File> selected = new TreeMap<Date, File>();
         Date date;
+        totalBytes = 0;
+        skippedFiles.clear();
 
         for (File file : files) {
             try {
-                dateStr = file.getName().substring(0, 8);
-                dt1 = new SimpleDateFormat("yyyyMMdd");
-                date = dt1.parse(dateStr);
-                dateTable = blackboard.getFormattedDate(date);
-                if (!tableData.hasColumn(dateTable))
-                    parseAttendanceFile(file, date);
-            } catch(ParseException e) {
-                e.printStackTrace();
+                date = SessionDate.parseFileName(file.getName()).getDate();
+                if (isUnchanged(date, file))
+                    continue;
+                if (selected.putIfAbsent(date, file) == null)
+                    totalBytes += file.length();
+            } catch(DateTimeParseException e) {
+                skippedFiles.add(file);
+                if (progressListener != null)
+                    progressListener.skipped(file, SKIPPED_WITHOUT_DATE);
+            }
+        }
+        return selected;
+    }
+
+    
+    /** 
+     * Returns the files skipped by the last selection because their name holds no date
+     */
+    public List<File> getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    
+    /** 
+     * Parses the selected files without touching the blackboard
+     * and returns the results in date order
+     * @param selected Files to be parsed, keyed by date in date order
+     */
+    public List<ParsedAttendance> parseFiles(Map<Date, File> selected) {
+        List<ParsedAttendance> parsed = new ArrayList<ParsedAttendance>(selected.size());
+        OperationTimer timer = metrics.timer("attendance.ingest");
+        long start = timer.start();
+        bytesRead.set(0);
+        rowsRead.set(0);
+
+        if (parallelism == 1 || selected.size() < 2) {
+            for (Map.Entry<Date, File> entry : selected.entrySet())
+                parsed.add(parseFile(entry.getValue(), entry.getKey()));
+        }
+        else {
+            List<Callable<ParsedAttendance>> tasks = new ArrayList<Callable<ParsedAttendance>>(selected.size());
+            for (Map.Entry<Date, File> entry : selected.entrySet())
+                tasks.add(() -> parseFile(entry.getValue(), entry.getKey()));
+
+            ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, tasks.size()));
+            try {
+                for (Future<ParsedAttendance> future : pool.invokeAll(tasks))
+                    parsed.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                parsed.clear();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                pool.shutdown();
             }
         }
-        blackboard.fileParsed();
+
+        if (cancelled)
+            parsed.clear();
+        parsed.removeIf(Objects::isNull);
+        timer.record(start, rowsRead.get(), bytesRead.get(), 0);
+        return parsed;
     }
 
     
@@ -71,45 +231,118 @@ public class ParseAttendance {
      * Parses the user inputted dated attendance file 
      * and stores data into blackboard
      * @param file File to be parsed
+     * @param date Attendance date
      */
     public void parseAttendanceFile(File file, Date date) {
-        String data, asurite;
-        String[] tokens;
+        ParsedAttendance result = parseFile(file, date);
+        if (result != null)
+            commit(result);
+    }
+
+    
+    /** 
+     * Parses a dated attendance file without touching the blackboard,
+     * returning null when the file cannot be read or parsing is cancelled
+     * @param file File to be parsed
+     * @param date Attendance date
+     */
+    public ParsedAttendance parseFile(File file, Date date) {
         int minutes, studIDFlag;
+        long reportedBytes = 0, reportedRows = 0;
 
-        Attendance attend = new Attendance(date);
+        BlackboardSnapshot snapshot = blackboard.getSnapshot();
+        ParsedAttendance result = new ParsedAttendance(file, date, snapshot.getStudentCount(), extrasLimit);
+        OperationTimer timer = metrics.timer("attendance.parse");
+        long start = timer.start();
+        long allocated = metrics.allocatedBytes();
 
-        try {
-            myReader = new Scanner(file);
-			while (myReader.hasNextLine()) {
-				data = myReader.nextLine();
-				tokens = data.split(",");
-                asurite = tokens[0].trim();
-                minutes = Integer.parseInt(tokens[1].trim());
-                studIDFlag = blackboard.hasAsurite(asurite);
-                if (studIDFlag != -1) {
-                    if (!attend.hasStudentTime(asurite)) {
-                        attend.addStudentTime(asurite, minutes);
-                    }
-                    else {
-                        attend.mergeStudentTime(asurite, minutes);
-                    }
-                    if (!attend.hasStudentTime2(asurite)) {
-                        attend.addStudentTime(studIDFlag, asurite, minutes);
-                    }
-                    else {
-                        attend.mergeStudentTime(studIDFlag, asurite, minutes);
-                    }
-                }
+        try (CsvReader reader = new CsvReader(file)) {
+            while (reader.nextRow()) {
+                if (reader.getFieldCount() < 2)
+                    continue;
+                minutes = Math.max(0, reader.getInt(1));
+                studIDFlag = snapshot.indexOfAsurite(reader.getBuffer(), reader.getFieldStart(0), reader.getFieldLength(0));
+                if (studIDFlag != RosterIndex.NOT_FOUND)
+                    result.addStudentTime(studIDFlag, minutes);
                 else
-                    extraAttendees.put(asurite, minutes);
+                    result.addExtra(reader.getBuffer(), reader.getFieldStart(0), reader.getFieldLength(0), minutes);
+
+                if (reader.getRowCount() - reportedRows == PROGRESS_INTERVAL) {
+                    if (cancelled)
+                        return null;
+                    reportProgress(reader.getBytesRead() - reportedBytes, PROGRESS_INTERVAL);
+                    reportedBytes = reader.getBytesRead();
+                    reportedRows = reader.getRowCount();
+                }
             }
-            blackboard.addAttendance(attend);
-            blackboard.setExtras(extraAttendees);
-            myReader.close();
-		} catch (FileNotFoundException e) {
-			System.out.println("Error occurred in finding attendance file(s): " + e);
-			e.printStackTrace();
+            reportProgress(reader.getBytesRead() - reportedBytes, reader.getRowCount() - reportedRows);
+            result.setRowCount(reader.getRowCount());
+            result.setContentHash(reader.getContentHash());
+            result.buildExtras();
+            timer.record(start, reader.getRowCount(), reader.getBytesRead(), metrics.allocatedBytes() - allocated);
+            metrics.counter("attendance.files").increment();
+            return cancelled ? null : result;
+        } catch (IOException e) {
+            System.out.println("Error occurred in finding attendance file(s): " + e);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    
+    /** 
+     * Adds newly parsed input to the running totals and notifies the progress listener
+     * @param bytes Bytes parsed since the last report
+     * @param rows Rows parsed since the last report
+     */
+    private void reportProgress(long bytes, long rows) {
+        long bytesTotal = bytesRead.addAndGet(bytes);
+        long rowsTotal = rowsRead.addAndGet(rows);
+        if (progressListener != null)
+            progressListener.progress(bytesTotal, totalBytes, rowsTotal);
+    }
+
+    
+    /** 
+     * Checks whether a date is loaded from the same file, unmodified
+     * @param date Attendance date
+     * @param file File to be checked
+     */
+    private boolean isUnchanged(Date date, File file) {
+        IngestManifest.Entry entry = manifest.get(date);
+        return blackboard.getAttendance(date) != null && entry != null && entry.isUnchanged(file);
+    }
+
+    
+    /** 
+     * Stores a parsed attendance file into blackboard.
+     * A date that is already loaded is replaced only when the file content has changed,
+     * otherwise only its manifest entry is refreshed.
+     * @param result Parsed attendance file
+     * @return ADDED for a new date, REPLACED for a loaded date whose content changed,
+     *         UNCHANGED for a loaded date whose content is the same
+     */
+    public Outcome commit(ParsedAttendance result) {
+        OperationTimer timer = metrics.timer("attendance.commit");
+        long start = timer.start();
+        blackboard.beginBatch();
+        try {
+            Attendance existing = blackboard.getAttendance(result.getDate());
+            IngestManifest.Entry previous = manifest.get(result.getDate());
+            blackboard.putManifestEntry(result.getDate(), result.getManifestEntry());
+
+            if (existing != null && previous != null && previous.getContentHash() == result.getContentHash())
+                return Outcome.UNCHANGED;
+
+            if (existing == null)
+                blackboard.addAttendance(result.getDate(), result.getMinutes());
+            else
+                blackboard.replaceAttendance(existing, result.getMinutes());
+            blackboard.putExtras(result.getExtras());
+            return existing == null ? Outcome.ADDED : Outcome.REPLACED;
+        } finally {
+            blackboard.endBatch();
+            timer.record(start, result.getRowCount(), 0, 0);
         }
-	}
+    }
 }
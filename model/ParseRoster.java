@@ -1,8 +1,15 @@
 package model;
 
 import java.io.File;
-import java.util.Scanner;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -14,17 +21,60 @@ import java.io.FileNotFoundException;
  * 3. Last Name - indicates student last name
  * 4. ASURITE - indicates unique alphabetic student ID
  * 
+ * Students are de-duplicated by ID in a single streaming pass, and every repeated
+ * ID, ASURITE or name is recorded in a RosterReport as it is found.
+ * 
  * @author Shrinkhala Kayastha
  * @version 1.0
  */
 public class ParseRoster {
 
-    private Scanner myReader;
+    private static final int PROGRESS_INTERVAL = 1 << 14;
 
     private Blackboard blackboard;
+    private final MetricsRegistry metrics;
+
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+    private RosterReport report;
     
     public ParseRoster() {
         this.blackboard = Blackboard.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
+        this.report = RosterReport.empty();
+    }
+
+    
+    /** 
+     * Sets the listener notified as the roster file is parsed
+     * @param progressListener Listener to be notified, or null
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    
+    /** 
+     * Requests that parsing stops; students already parsed are discarded
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    
+    /** 
+     * Checks whether parsing has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    
+    /** 
+     * Returns the repeated rows found by the last parse
+     */
+    public RosterReport getReport() {
+        return report;
     }
 
     
@@ -34,26 +84,151 @@ public class ParseRoster {
      * @param file File to be parsed
      */
     public void parseRosterFile(File file) {
-        String data;
-        String[] tokens;
-        
-		try{
-            myReader = new Scanner(file);
-			while (myReader.hasNextLine()) {
-				data = myReader.nextLine();
-				tokens = data.split(",");
-                Student newStud = new Student(tokens);
-                if (!blackboard.hasStudent(newStud))
-                    blackboard.addStudent(new Student(tokens));
-			}
-            myReader.close();
-            blackboard.fileParsed();
-		} catch (FileNotFoundException e) {
-			System.out.println("Error occurred in finding roster file: " + e);
-			e.printStackTrace();
-		} catch (Exception e) {
-			System.out.println("Error occurred in parsing roster data: " + e);
-			e.printStackTrace();
-		}
-	}
+        try {
+            List<Student> students = parseRoster(file);
+            blackboard.beginBatch();
+            try {
+                commit(students);
+            } finally {
+                blackboard.endBatch();
+            }
+        } catch (IOException e) {
+            System.out.println("Error occurred in finding roster file: " + e);
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.out.println("Error occurred in parsing roster data: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    
+    /** 
+     * Parses the user inputted student roster file without touching the blackboard
+     * and returns its students in file order, skipping repeated student IDs.
+     * The students are encoded into a new symbol table straight from the file bytes,
+     * which the blackboard adopts when they are committed to an empty roster.
+     * Repeated rows are checked with array lookups by symbol code,
+     * so reporting them adds no hashing or allocation to the pass.
+     * Returns an empty list when parsing is cancelled.
+     * @param file File to be parsed
+     */
+    public List<Student> parseRoster(File file) throws IOException {
+        int[] codes = new int[4];
+        List<Student> students = new ArrayList<Student>();
+        SymbolTable symbols = new SymbolTable();
+        int[] idRows = new int[64];
+        int[] asuriteRows = new int[64];
+        int[] studentRows = new int[64];
+        List<RosterReport.Duplicate> duplicates = new ArrayList<RosterReport.Duplicate>();
+        report = RosterReport.empty();
+        OperationTimer timer = metrics.timer("roster.parse");
+        long start = timer.start();
+        long allocated = metrics.allocatedBytes();
+
+        try (CsvReader reader = new CsvReader(file)) {
+            while (reader.nextRow()) {
+                if (reader.getFieldCount() < codes.length)
+                    continue;
+                int row = (int) reader.getRowCount();
+                codes[0] = symbols.intern(reader.getBuffer(), reader.getFieldStart(0), reader.getFieldLength(0));
+                if (codes[0] >= idRows.length)
+                    idRows = Arrays.copyOf(idRows, Math.max(codes[0] + 1, idRows.length * 2));
+
+                if (idRows[codes[0]] != 0)
+                    duplicates.add(new RosterReport.Duplicate(RosterReport.Kind.ID, row, idRows[codes[0]], symbols.getString(codes[0])));
+                else {
+                    idRows[codes[0]] = row;
+                    for (int i = 1; i < codes.length; i++)
+                        codes[i] = symbols.intern(reader.getBuffer(), reader.getFieldStart(i), reader.getFieldLength(i));
+
+                    if (codes[3] >= asuriteRows.length)
+                        asuriteRows = Arrays.copyOf(asuriteRows, Math.max(codes[3] + 1, asuriteRows.length * 2));
+                    if (asuriteRows[codes[3]] != 0)
+                        duplicates.add(new RosterReport.Duplicate(RosterReport.Kind.ASURITE, row, asuriteRows[codes[3]], symbols.getString(codes[3])));
+                    else
+                        asuriteRows[codes[3]] = row;
+
+                    if (students.size() == studentRows.length)
+                        studentRows = Arrays.copyOf(studentRows, studentRows.length * 2);
+                    studentRows[students.size()] = row;
+                    students.add(new Student(symbols, codes[0], codes[1], codes[2], codes[3]));
+                }
+
+                if (reader.getRowCount() % PROGRESS_INTERVAL == 0) {
+                    if (cancelled)
+                        return new ArrayList<Student>();
+                    if (progressListener != null)
+                        progressListener.progress(reader.getBytesRead(), reader.getFileSize(), reader.getRowCount());
+                }
+            }
+            if (progressListener != null)
+                progressListener.progress(reader.getBytesRead(), reader.getFileSize(), reader.getRowCount());
+            if (cancelled)
+                return new ArrayList<Student>();
+
+            findSharedNames(students, studentRows, duplicates);
+            duplicates.sort(Comparator.comparingInt(RosterReport.Duplicate::getRow));
+            report = new RosterReport((int) reader.getRowCount(), students.size(), duplicates);
+            timer.record(start, reader.getRowCount(), reader.getBytesRead(), metrics.allocatedBytes() - allocated);
+        }
+        return students;
+    }
+
+    
+    /** 
+     * Records the students who share first and last name with an earlier student.
+     * The name codes are packed into sorted longs to find shared names,
+     * and only those names are then tracked in file order.
+     * @param students Parsed students in file order
+     * @param rows Row number of each student
+     * @param duplicates Repeated rows found so far
+     */
+    private static void findSharedNames(List<Student> students, int[] rows, List<RosterReport.Duplicate> duplicates) {
+        long[] names = new long[students.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = nameKey(students.get(i));
+        long[] sorted = names.clone();
+        Arrays.sort(sorted);
+
+        Set<Long> shared = new HashSet<Long>();
+        for (int i = 1; i < sorted.length; i++)
+            if (sorted[i] == sorted[i - 1])
+                shared.add(sorted[i]);
+        if (shared.isEmpty())
+            return;
+
+        Map<Long, Integer> firstRows = new HashMap<Long, Integer>();
+        for (int i = 0; i < names.length; i++) {
+            if (!shared.contains(names[i]))
+                continue;
+            Integer firstRow = firstRows.putIfAbsent(names[i], rows[i]);
+            if (firstRow != null) {
+                Student stud = students.get(i);
+                duplicates.add(new RosterReport.Duplicate(RosterReport.Kind.NAME, rows[i], firstRow,
+                    stud.getFirstName() + " " + stud.getLastName()));
+            }
+        }
+    }
+
+    
+    /** 
+     * Returns the first and last name codes of a student packed into one long
+     * @param stud Student to be keyed
+     */
+    private static long nameKey(Student stud) {
+        return ((long) stud.getFirstNameCode() << 32) | (stud.getLastNameCode() & 0xFFFFFFFFL);
+    }
+
+    
+    /** 
+     * Stores parsed students into blackboard in one bulk append,
+     * skipping students already on the roster
+     * @param students Students to be stored
+     */
+    public void commit(List<Student> students) {
+        OperationTimer timer = metrics.timer("roster.commit");
+        long start = timer.start();
+        blackboard.addStudents(students);
+        timer.record(start, students.size(), 0, 0);
+    }
 }
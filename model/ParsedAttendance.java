@@ -0,0 +1,166 @@
+package model;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * This class holds the result of parsing a single dated attendance file
+ * before it is committed to the blackboard.
+ * Minutes are kept in a detached column indexed by roster ordinal,
+ * so several files can be parsed independently and committed later in date order.
+ * Non-rostered attendees are fed to an ExtrasSketch as the file is read, so however long
+ * the guest list is, only the attendees that can still make the SessionExtras kept for the date
+ * are held while parsing, and none at all when only their count is kept.
+ *
+ * @author Shrinkhala Kayastha
+ * @version 1.0
+ */
+public class ParsedAttendance {
+
+    private final File file;
+    private final Date date;
+    private final int[] minutes;
+    private final int extrasLimit;
+    private ExtrasSketch extraSketch;
+    private SessionExtras extras;
+    private long rowCount;
+    private long contentHash;
+    private final long fileSize;
+    private final long lastModified;
+
+    public ParsedAttendance(File file, Date date, int studentCount) {
+        this(file, date, studentCount, SessionExtras.DEFAULT_LIMIT);
+    }
+
+
+    public ParsedAttendance(File file, Date date, int studentCount, int extrasLimit) {
+        this.file = file;
+        this.fileSize = file.length();
+        this.lastModified = file.lastModified();
+        this.date = date;
+        this.minutes = AttendanceMatrix.newColumn(studentCount);
+        this.extrasLimit = Math.max(0, extrasLimit);
+        this.extraSketch = new ExtrasSketch(this.extrasLimit);
+    }
+
+
+    /**
+     * Returns the parsed attendance file
+     */
+    public File getFile() {
+        return file;
+    }
+
+
+    /**
+     * Returns attendance Date
+     */
+    public Date getDate() {
+        return date;
+    }
+
+
+    /**
+     * Returns parsed minutes indexed by roster ordinal
+     */
+    public int[] getMinutes() {
+        return minutes;
+    }
+
+
+    /**
+     * Adds minutes for a rostered student, merging duplicate rows
+     * @param index Student index as per roster data
+     * @param minutes Minutes to be added
+     */
+    public void addStudentTime(int index, int minutes) {
+        AttendanceMatrix.merge(this.minutes, index, minutes);
+    }
+
+
+    /**
+     * Returns the non-rostered attendees found in the file,
+     * keeping up to the extras limit given when parsing started
+     */
+    public SessionExtras getExtras() {
+        if (extras == null)
+            buildExtras();
+        return extras;
+    }
+
+
+    /**
+     * Records a non-rostered attendee, merging duplicate rows
+     * @param asurite Asurite of the attendee
+     * @param minutes Minutes attended
+     */
+    public void addExtra(String asurite, int minutes) {
+        byte[] bytes = asurite.getBytes(StandardCharsets.UTF_8);
+        extraSketch.add(bytes, 0, bytes.length, minutes);
+    }
+
+
+    /**
+     * Records a non-rostered attendee read as UTF-8 bytes, merging duplicate rows
+     * @param bytes Buffer holding the ASURITE
+     * @param offset Offset of the ASURITE in the buffer
+     * @param length Length of the ASURITE in bytes
+     * @param minutes Minutes attended
+     */
+    public void addExtra(byte[] bytes, int offset, int length, int minutes) {
+        extraSketch.add(bytes, offset, length, minutes);
+    }
+
+
+    /**
+     * Reduces the non-rostered attendees to the ones kept for the date
+     * and releases the sketch that tracked them
+     */
+    public void buildExtras() {
+        extras = extraSketch.build(date, extrasLimit);
+        extraSketch = null;
+    }
+
+
+    /**
+     * Returns number of rows read from the file
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+
+    /**
+     * Returns the content hash of the parsed file
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+
+    /**
+     * Sets the content hash of the parsed file
+     * @param contentHash Content hash
+     */
+    public void setContentHash(long contentHash) {
+        this.contentHash = contentHash;
+    }
+
+
+    /**
+     * Returns the manifest entry describing the parsed file as it was when parsing started
+     */
+    public IngestManifest.Entry getManifestEntry() {
+        return new IngestManifest.Entry(file.getAbsolutePath(), fileSize, lastModified, contentHash);
+    }
+
+
+    /**
+     * Sets number of rows read from the file
+     * @param rowCount Number of rows
+     */
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+}
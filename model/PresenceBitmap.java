@@ -0,0 +1,238 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * This class is an immutable set of roster ordinals, such as the students present on a date,
+ * stored as a plain dense bitmap of one bit per student packed into 64 bit words.
+ * It is not run-length or otherwise compressed: most students attend most dates,
+ * so presence and absence sets are dense and one bit per student is already the smallest form,
+ * a date of 100000 students taking about 12 kilobytes.
+ * Combining dates with and, or and andNot or counting students
+ * works on a whole word of 64 students at a time.
+ *
+ * Trailing empty words are dropped, so a date attended by only the first few students
+ * of the roster stays small, and bitmaps of different lengths can be combined freely.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public final class PresenceBitmap {
+
+    public static final PresenceBitmap EMPTY = new PresenceBitmap(new long[0]);
+
+    private final long[] words;
+
+    private PresenceBitmap(long[] words) {
+        this.words = words;
+    }
+
+
+    /**
+     * Returns the students who attended at least the given minutes on a date
+     * @param column Minutes indexed by roster ordinal
+     * @param rows Number of students in the roster
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    public static PresenceBitmap of(int[] column, int rows, int minMinutes) {
+        int stored = Math.min(rows, column.length);
+        long[] words = new long[(stored + 63) >>> 6];
+        for (int row = 0; row < stored; row++) {
+            int minutes = column[row];
+            if (minutes != AttendanceMatrix.ABSENT && minutes >= minMinutes)
+                words[row >>> 6] |= 1L << row;
+        }
+        return trimmed(words);
+    }
+
+
+    /**
+     * Returns the set of all students of a roster
+     * @param rows Number of students in the roster
+     */
+    public static PresenceBitmap all(int rows) {
+        long[] words = new long[(rows + 63) >>> 6];
+        Arrays.fill(words, -1L);
+        if ((rows & 63) != 0)
+            words[words.length - 1] = (1L << rows) - 1;
+        return trimmed(words);
+    }
+
+
+    /**
+     * Checks whether a student is in the set
+     * @param row Roster ordinal of the student
+     */
+    public boolean contains(int row) {
+        int word = row >>> 6;
+        return word < words.length && (words[word] & (1L << row)) != 0;
+    }
+
+
+    /**
+     * Returns number of students in the set
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+
+    /**
+     * Checks whether the set has no students
+     */
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+
+    /**
+     * Returns the students in both sets
+     * @param other Set to be intersected with
+     */
+    public PresenceBitmap and(PresenceBitmap other) {
+        long[] result = new long[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < result.length; i++)
+            result[i] = words[i] & other.words[i];
+        return trimmed(result);
+    }
+
+
+    /**
+     * Returns the students in either set
+     * @param other Set to be joined with
+     */
+    public PresenceBitmap or(PresenceBitmap other) {
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] result = longer.clone();
+        for (int i = 0; i < shorter.length; i++)
+            result[i] |= shorter[i];
+        return new PresenceBitmap(result);
+    }
+
+
+    /**
+     * Returns the students in this set but not in the other
+     * @param other Set of students to be removed
+     */
+    public PresenceBitmap andNot(PresenceBitmap other) {
+        long[] result = words.clone();
+        for (int i = 0; i < Math.min(result.length, other.words.length); i++)
+            result[i] &= ~other.words[i];
+        return trimmed(result);
+    }
+
+
+    /**
+     * Returns the roster ordinals in the set in ascending order
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                rows[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return rows;
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the bitmap
+     */
+    long estimateHeapBytes() {
+        return HeapEstimate.ofObject(HeapEstimate.REFERENCE) + HeapEstimate.of(words);
+    }
+
+
+    /**
+     * Returns the students who are in at least the given number of sets,
+     * such as the students absent on at least three of the last ten dates.
+     * The sets are summed with a bit-sliced counter, so every word of 64 students
+     * is counted at once rather than one student at a time.
+     * @param sets Sets to be counted
+     * @param times Minimum number of sets a student must be in
+     */
+    public static PresenceBitmap atLeast(Collection<PresenceBitmap> sets, int times) {
+        if (times <= 0)
+            throw new IllegalArgumentException("times must be positive: " + times);
+        if (times > sets.size())
+            return EMPTY;
+
+        int length = 0;
+        for (PresenceBitmap set : sets)
+            length = Math.max(length, set.words.length);
+        int bits = 32 - Integer.numberOfLeadingZeros(sets.size());
+        long[][] planes = new long[bits][length];
+
+        for (PresenceBitmap set : sets) {
+            for (int i = 0; i < set.words.length; i++) {
+                long carry = set.words[i];
+                for (int bit = 0; bit < bits && carry != 0; bit++) {
+                    long plane = planes[bit][i];
+                    planes[bit][i] = plane ^ carry;
+                    carry &= plane;
+                }
+            }
+        }
+
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            long greater = 0;
+            long equal = -1L;
+            for (int bit = bits - 1; bit >= 0; bit--) {
+                long plane = planes[bit][i];
+                if ((times & (1 << bit)) != 0)
+                    equal &= plane;
+                else {
+                    greater |= equal & plane;
+                    equal &= ~plane;
+                }
+            }
+            result[i] = greater | equal;
+        }
+        return trimmed(result);
+    }
+
+
+    /**
+     * Returns a bitmap over the words with trailing empty words dropped
+     * @param words Bit words, owned by the new bitmap
+     */
+    private static PresenceBitmap trimmed(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0)
+            length--;
+        if (length == 0)
+            return EMPTY;
+        return new PresenceBitmap(length == words.length ? words : Arrays.copyOf(words, length));
+    }
+
+
+    /**
+     * Returns objects hash code
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+
+    /**
+     * Checks whether both sets hold the same students
+     * @param o Object to be checked
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(words, ((PresenceBitmap) o).words);
+    }
+}
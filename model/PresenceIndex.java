@@ -0,0 +1,65 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class holds the presence bitmaps of the dates in a snapshot.
+ * A bitmap is built the first time a date is queried with a minutes threshold,
+ * in one pass over that date's minutes column, so repeated queries only combine bitmaps.
+ * Columns are replaced rather than modified, so when a new snapshot is captured
+ * the bitmaps of every column it still shares with the previous one are carried over,
+ * and adding or replacing one date only drops the bitmaps of that date.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+class PresenceIndex {
+
+    private final int[][] columns;
+    private final ConcurrentHashMap<Long, PresenceBitmap> bitmaps;
+
+    PresenceIndex(int[][] columns) {
+        this.columns = columns;
+        this.bitmaps = new ConcurrentHashMap<Long, PresenceBitmap>();
+    }
+
+    PresenceIndex(int[][] columns, PresenceIndex previous) {
+        this(columns);
+        for (Map.Entry<Long, PresenceBitmap> entry : previous.bitmaps.entrySet()) {
+            int col = (int) (entry.getKey() >>> 32);
+            if (col < columns.length && col < previous.columns.length && columns[col] == previous.columns[col])
+                bitmaps.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    /**
+     * Returns the students who attended at least the given minutes on a date
+     * @param col Date ordinal of the attendance
+     * @param minMinutes Minutes a student must attend to count as present
+     */
+    PresenceBitmap get(int col, int minMinutes) {
+        long key = ((long) col << 32) | (minMinutes & 0xFFFFFFFFL);
+        return bitmaps.computeIfAbsent(key, k -> PresenceBitmap.of(columns[col], columns[col].length, minMinutes));
+    }
+
+
+    /**
+     * Returns number of bitmaps built so far
+     */
+    int size() {
+        return bitmaps.size();
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the bitmaps built so far, not counting the columns
+     */
+    long estimateHeapBytes() {
+        long bytes = 0;
+        for (PresenceBitmap bitmap : bitmaps.values())
+            bytes += bitmap.estimateHeapBytes();
+        return bytes;
+    }
+}
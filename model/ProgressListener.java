@@ -0,0 +1,31 @@
+package model;
+
+import java.io.File;
+
+/**
+ * This interface is implemented by classes that want to follow
+ * the progress of a roster or attendance file being parsed.
+ * It may be called from parser worker threads.
+ *
+ * @author Shrinkhala Kayastha
+ * @version 1.0
+ */
+public interface ProgressListener {
+
+    /**
+     * Reports the amount of input processed so far
+     * @param bytesRead Bytes read across all files being parsed
+     * @param totalBytes Total bytes of all files being parsed
+     * @param rowsRead Rows read across all files being parsed
+     */
+    void progress(long bytesRead, long totalBytes, long rowsRead);
+
+
+    /**
+     * Reports an input file that is not parsed
+     * @param file File skipped
+     * @param reason Why the file is skipped
+     */
+    default void skipped(File file, String reason) {
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * This class maintains a lookup from a student key (ASURITE or ID)
+ * to the ordinal position of that student in the roster.
+ * Keys are symbol codes of the roster's SymbolTable, so the lookup itself
+ * is a single array read, and a lookup by string or by bytes
+ * never walks the roster and never allocates beyond the symbol lookup.
+ *
+ * When the same key is added twice, the first roster ordinal is kept,
+ * which matches the order in which students appear in the roster file.
+ *
+ * Like its SymbolTable, an index has a single writer at a time and may be read without locking:
+ * the ordinals array is only ever replaced by a fully filled grown copy.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class RosterIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final SymbolTable symbols;
+    private volatile int[] ordinals;
+    private int size;
+
+    public RosterIndex(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.ordinals = new int[INITIAL_CAPACITY];
+        Arrays.fill(ordinals, NOT_FOUND);
+        this.size = 0;
+    }
+
+
+    /**
+     * Returns number of keys in the index
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Adds a key with its roster ordinal unless the key is already indexed
+     * @param code Symbol code of the key
+     * @param ordinal Roster ordinal of the student
+     * @return true if the key was added
+     */
+    public boolean put(int code, int ordinal) {
+        int[] table = ordinals;
+        if (code >= table.length) {
+            int oldLength = table.length;
+            table = Arrays.copyOf(table, Math.max(code + 1, oldLength * 2));
+            Arrays.fill(table, oldLength, table.length, NOT_FOUND);
+            ordinals = table;
+        }
+        if (table[code] != NOT_FOUND)
+            return false;
+        table[code] = ordinal;
+        size++;
+        return true;
+    }
+
+
+    /**
+     * Returns the roster ordinal for a symbol code, or NOT_FOUND
+     * @param code Symbol code of the key
+     */
+    public int get(int code) {
+        int[] table = ordinals;
+        return code >= 0 && code < table.length ? table[code] : NOT_FOUND;
+    }
+
+
+    /**
+     * Returns the roster ordinal for a key, or NOT_FOUND
+     * @param key Key to be looked up
+     */
+    public int get(String key) {
+        return get(symbols.lookup(key));
+    }
+
+
+    /**
+     * Returns the roster ordinal for a key held as UTF-8 bytes, or NOT_FOUND,
+     * without decoding the bytes into a string
+     * @param bytes Buffer holding the key
+     * @param offset Offset of the key in the buffer
+     * @param length Length of the key in bytes
+     */
+    public int get(byte[] bytes, int offset, int length) {
+        return get(symbols.lookup(bytes, offset, length));
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the index, not counting its symbol table
+     */
+    long estimateHeapBytes() {
+        return HeapEstimate.ofObject(2 * HeapEstimate.REFERENCE + 4) + HeapEstimate.of(ordinals);
+    }
+}
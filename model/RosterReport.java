@@ -0,0 +1,152 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class reports the repeated rows found while a roster file was loaded:
+ * 1. ID - a row repeating the ID of an earlier row, which is skipped
+ * 2. ASURITE - a row repeating the ASURITE of an earlier student, whose attendance
+ *    is credited to the earlier student
+ * 3. NAME - a student sharing first and last name with an earlier student,
+ *    such as the several Krithish Goli rows, which is loaded but may be a mistake
+ *
+ * Rows are numbered from 1 in file order, not counting blank lines.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class RosterReport {
+
+    public enum Kind {
+        ID,
+        ASURITE,
+        NAME
+    }
+
+    private final int rowCount;
+    private final int studentCount;
+    private final List<Duplicate> duplicates;
+
+    RosterReport(int rowCount, int studentCount, List<Duplicate> duplicates) {
+        this.rowCount = rowCount;
+        this.studentCount = studentCount;
+        this.duplicates = Collections.unmodifiableList(duplicates);
+    }
+
+
+    /**
+     * Returns an empty report, for a roster that was not parsed
+     */
+    public static RosterReport empty() {
+        return new RosterReport(0, 0, new ArrayList<Duplicate>());
+    }
+
+
+    /**
+     * Returns number of student rows read
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+
+    /**
+     * Returns number of distinct students loaded
+     */
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+
+    /**
+     * Returns the repeated rows in file order
+     */
+    public List<Duplicate> getDuplicates() {
+        return duplicates;
+    }
+
+
+    /**
+     * Returns number of repeated rows of a kind
+     * @param kind Kind of repetition
+     */
+    public int count(Kind kind) {
+        int count = 0;
+        for (Duplicate duplicate : duplicates)
+            if (duplicate.getKind() == kind)
+                count++;
+        return count;
+    }
+
+
+    /**
+     * Returns a one line summary of the repeated rows
+     */
+    public String getSummary() {
+        return count(Kind.ID) + " repeated ID(s) skipped, " + count(Kind.ASURITE) + " repeated ASURITE(s), "
+            + count(Kind.NAME) + " student(s) sharing a name";
+    }
+
+
+    /**
+     * This class is one repeated roster row.
+     */
+    public static class Duplicate {
+
+        private final Kind kind;
+        private final int row;
+        private final int firstRow;
+        private final String value;
+
+        Duplicate(Kind kind, int row, int firstRow, String value) {
+            this.kind = kind;
+            this.row = row;
+            this.firstRow = firstRow;
+            this.value = value;
+        }
+
+
+        /**
+         * Returns what the row repeats
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+
+        /**
+         * Returns the number of the repeating row
+         */
+        public int getRow() {
+            return row;
+        }
+
+
+        /**
+         * Returns the number of the earlier row it repeats
+         */
+        public int getFirstRow() {
+            return firstRow;
+        }
+
+
+        /**
+         * Returns the repeated ID, ASURITE or name
+         */
+        public String getValue() {
+            return value;
+        }
+
+
+        /**
+         * Returns a description of the repeated row
+         */
+        @Override
+        public String toString() {
+            return "Row " + row + " repeats " + kind + " " + value + " of row " + firstRow;
+        }
+    }
+}
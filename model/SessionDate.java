@@ -0,0 +1,155 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * This class is the date dimension of the attendance data.
+ * Each class session is identified by its epoch day, the number of days since 1970-01-01
+ * in the local time zone, which orders sessions and serves as their lookup key.
+ * The display label and the java.util.Date of the session are computed once when it is created,
+ * and the formatters used are shared, immutable and thread-safe.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public final class SessionDate implements Comparable<SessionDate> {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final DateTimeFormatter LABEL_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int FILE_NAME_LENGTH = 8;
+
+    private final long epochDay;
+    private final Date date;
+    private final String label;
+
+    private SessionDate(LocalDate day) {
+        this.epochDay = day.toEpochDay();
+        this.date = Date.from(day.atStartOfDay(ZONE).toInstant());
+        this.label = LABEL_FORMAT.format(day);
+    }
+
+
+    /**
+     * Returns the session held on the day of a date
+     * @param date Date within the session day
+     */
+    public static SessionDate of(Date date) {
+        return new SessionDate(toLocalDate(date));
+    }
+
+
+    /**
+     * Returns the session held on a day
+     * @param day Session day
+     */
+    public static SessionDate of(LocalDate day) {
+        return new SessionDate(day);
+    }
+
+
+    /**
+     * Returns the session named by the yyyyMMdd prefix of an attendance file name
+     * @param fileName Name of the attendance file
+     */
+    public static SessionDate parseFileName(String fileName) {
+        if (fileName.length() < FILE_NAME_LENGTH)
+            throw new DateTimeParseException("File name does not start with a yyyyMMdd date", fileName, 0);
+        return new SessionDate(LocalDate.parse(fileName.substring(0, FILE_NAME_LENGTH), FILE_NAME_FORMAT));
+    }
+
+
+    /**
+     * Returns the epoch day of a date in the local time zone
+     * @param date Date to be converted
+     */
+    public static long epochDay(Date date) {
+        return toLocalDate(date).toEpochDay();
+    }
+
+
+    /**
+     * Formats a date into the MM/dd/yy display format
+     * @param date Date to be formatted
+     */
+    public static String format(Date date) {
+        return LABEL_FORMAT.format(toLocalDate(date));
+    }
+
+
+    /**
+     * Returns epoch day of the session
+     */
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+
+    /**
+     * Returns the start of the session day
+     */
+    public Date getDate() {
+        return date;
+    }
+
+
+    /**
+     * Returns the session day formatted as MM/dd/yy
+     */
+    public String getLabel() {
+        return label;
+    }
+
+
+    /**
+     * Compares sessions by day
+     * @param other Session to be compared with
+     */
+    @Override
+    public int compareTo(SessionDate other) {
+        return Long.compare(epochDay, other.epochDay);
+    }
+
+
+    /**
+     * Returns objects hash code
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(epochDay);
+    }
+
+
+    /**
+     * Checks whether both sessions are on the same day
+     * @param o Object to be checked
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return epochDay == ((SessionDate) o).epochDay;
+    }
+
+
+    /**
+     * Returns the session label
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+
+
+    /**
+     * Returns the local day of a date
+     * @param date Date to be converted
+     */
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZONE).toLocalDate();
+    }
+}
@@ -0,0 +1,165 @@
+package model;
+
+import java.util.Date;
+
+/**
+ * This class is the immutable record of the non-rostered attendees of one session.
+ * Duplicate rows of an attendee are merged into one entry by summing their minutes,
+ * and the session knows how many minutes all attendees attended in total
+ * and how many distinct attendees it had.
+ *
+ * To bound memory in open sessions whose guest list can exceed the roster,
+ * only the attendees with the most minutes are kept, up to a limit.
+ * A limit of zero keeps the counts only.
+ * Counts and kept minutes are exact unless the guest list outgrew the table tracked while parsing,
+ * in which case the count is estimated and kept minutes may be understated, as ExtrasSketch describes.
+ * Kept attendees are ordered by minutes, most first, and their ASURITEs
+ * are stored in a byte arena rather than as separate strings.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public final class SessionExtras {
+
+    public static final int DEFAULT_LIMIT = 1000;
+
+    private final SessionDate session;
+    private final int attendeeCount;
+    private final long totalMinutes;
+    private final SymbolTable asurites;
+    private final int[] codes;
+    private final int[] minutes;
+
+    private SessionExtras(SessionDate session, int attendeeCount, long totalMinutes,
+            SymbolTable asurites, int[] codes, int[] minutes) {
+        this.session = session;
+        this.attendeeCount = attendeeCount;
+        this.totalMinutes = totalMinutes;
+        this.asurites = asurites;
+        this.codes = codes;
+        this.minutes = minutes;
+    }
+
+
+    /**
+     * Returns the extras of a session from the attendees kept while parsing
+     * @param date Session date
+     * @param attendeeCount Number of distinct attendees, including those not kept
+     * @param totalMinutes Total minutes of all attendees
+     * @param symbols ASURITEs of the attendees kept
+     * @param codes Codes of the attendees kept, most minutes first
+     * @param minutes Merged minutes of each attendee kept
+     */
+    static SessionExtras of(Date date, int attendeeCount, long totalMinutes, SymbolTable symbols, int[] codes, int[] minutes) {
+        return new SessionExtras(SessionDate.of(date), attendeeCount, totalMinutes, symbols, codes, minutes);
+    }
+
+
+    /**
+     * Returns the extras of a session as they were saved
+     * @param date Session date
+     * @param attendeeCount Number of distinct attendees, including those not kept
+     * @param totalMinutes Total minutes of all attendees
+     * @param asuriteList ASURITEs of the attendees kept, most minutes first
+     * @param minuteList Merged minutes of each attendee kept
+     */
+    static SessionExtras restore(Date date, int attendeeCount, long totalMinutes, String[] asuriteList, int[] minuteList) {
+        SymbolTable symbols = new SymbolTable();
+        int[] codes = new int[asuriteList.length];
+        for (int i = 0; i < asuriteList.length; i++)
+            codes[i] = symbols.intern(asuriteList[i]);
+        return new SessionExtras(SessionDate.of(date), attendeeCount, totalMinutes, symbols, codes, minuteList);
+    }
+
+
+    /**
+     * Returns the session of these extras
+     */
+    public SessionDate getSession() {
+        return session;
+    }
+
+
+    /**
+     * Returns epoch day of the session
+     */
+    public long getEpochDay() {
+        return session.getEpochDay();
+    }
+
+
+    /**
+     * Returns number of distinct non-rostered attendees of the session,
+     * including those not kept
+     */
+    public int getAttendeeCount() {
+        return attendeeCount;
+    }
+
+
+    /**
+     * Returns total minutes attended by all non-rostered attendees of the session
+     */
+    public long getTotalMinutes() {
+        return totalMinutes;
+    }
+
+
+    /**
+     * Returns number of attendees kept
+     */
+    public int size() {
+        return codes.length;
+    }
+
+
+    /**
+     * Checks whether some attendees were dropped to respect the limit
+     */
+    public boolean isTruncated() {
+        return codes.length < attendeeCount;
+    }
+
+
+    /**
+     * Returns the ASURITE of a kept attendee
+     * @param index Rank of the attendee, most minutes first
+     */
+    public String getAsurite(int index) {
+        return asurites.getString(codes[index]);
+    }
+
+
+    /**
+     * Returns the merged minutes of a kept attendee
+     * @param index Rank of the attendee, most minutes first
+     */
+    public int getMinutes(int index) {
+        return minutes[index];
+    }
+
+
+    /**
+     * Returns the merged minutes of an attendee, or AttendanceMatrix.ABSENT
+     * when the attendee was not kept or did not attend
+     * @param asurite ASURITE of the attendee
+     */
+    public int getMinutes(String asurite) {
+        int code = asurites.lookup(asurite);
+        if (code == SymbolTable.NOT_FOUND)
+            return AttendanceMatrix.ABSENT;
+        for (int i = 0; i < codes.length; i++)
+            if (codes[i] == code)
+                return minutes[i];
+        return AttendanceMatrix.ABSENT;
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the extras, including their symbol table
+     */
+    long estimateHeapBytes() {
+        return HeapEstimate.ofObject(4 * HeapEstimate.REFERENCE + 12) + HeapEstimate.of(codes)
+            + HeapEstimate.of(minutes) + asurites.estimateHeapBytes();
+    }
+}
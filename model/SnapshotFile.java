@@ -0,0 +1,286 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class saves and restores the whole blackboard as a compact binary snapshot,
+ * so a session can be reopened without re-reading the roster and attendance files.
+ *
+ * A snapshot is written and read in one sequential pass and is laid out as:
+ * 1. Header - magic number and format version
+ * 2. String table - every distinct ID, name and ASURITE, stored once
+ * 3. Roster - per student, string table references for ID, first name, last name and ASURITE
+ * 4. Attendance - per date, the date followed by the minutes of every student in roster order
+ * 5. Extras - per session, the date, attendee count and total minutes of the non-rostered attendees,
+ *    followed by a string table reference and the merged minutes of each attendee kept
+ * 6. Manifest - per attendance date, the path, size, modification time and content hash of its source file
+ *
+ * All counts, references and minutes are variable length integers,
+ * and minutes are stored plus one so that absent students take a single zero byte.
+ * Dates are stored as epoch days, so a snapshot reopens on the same dates in any time zone.
+ * Files of any other format version are rejected.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class SnapshotFile {
+
+    private static final int MAGIC = 0x41545453;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Blackboard blackboard;
+
+    public SnapshotFile() {
+        this.blackboard = Blackboard.getInstance();
+    }
+
+
+    /**
+     * Writes the blackboard contents to a snapshot file
+     * @param file File to be written
+     */
+    public void write(File file) throws IOException {
+        BlackboardSnapshot snapshot = blackboard.getSnapshot();
+        List<Student> students = snapshot.getStudents();
+        Collection<Attendance> attendances = snapshot.getAttendances();
+        Collection<SessionExtras> sessionExtras = snapshot.getSessionExtras();
+
+        SymbolTable symbols = students.isEmpty() ? new SymbolTable() : students.get(0).getSymbols();
+
+        int[] refs = new int[symbols.size()];
+        Arrays.fill(refs, -1);
+        List<String> strings = new ArrayList<String>();
+        for (Student stud : students) {
+            intern(stud.getIdCode(), symbols, refs, strings);
+            intern(stud.getFirstNameCode(), symbols, refs, strings);
+            intern(stud.getLastNameCode(), symbols, refs, strings);
+            intern(stud.getAsuriteCode(), symbols, refs, strings);
+        }
+        Map<String, Integer> extraStrings = new HashMap<String, Integer>();
+        List<int[]> extraRefs = new ArrayList<int[]>();
+        for (SessionExtras extras : sessionExtras) {
+            int[] sessionRefs = new int[extras.size()];
+            for (int i = 0; i < sessionRefs.length; i++) {
+                String asurite = extras.getAsurite(i);
+                int code = symbols.lookup(asurite);
+                if (code != SymbolTable.NOT_FOUND) {
+                    intern(code, symbols, refs, strings);
+                    sessionRefs[i] = refs[code];
+                }
+                else {
+                    Integer ref = extraStrings.get(asurite);
+                    if (ref == null) {
+                        ref = strings.size();
+                        extraStrings.put(asurite, ref);
+                        strings.add(asurite);
+                    }
+                    sessionRefs[i] = ref;
+                }
+            }
+            extraRefs.add(sessionRefs);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            writeVarint(out, VERSION);
+
+            writeVarint(out, strings.size());
+            for (String str : strings) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length);
+                out.write(bytes);
+            }
+
+            writeVarint(out, students.size());
+            for (Student stud : students) {
+                writeVarint(out, refs[stud.getIdCode()]);
+                writeVarint(out, refs[stud.getFirstNameCode()]);
+                writeVarint(out, refs[stud.getLastNameCode()]);
+                writeVarint(out, refs[stud.getAsuriteCode()]);
+            }
+
+            int[] minutes = new int[students.size()];
+            writeVarint(out, attendances.size());
+            for (Attendance attend : attendances) {
+                out.writeLong(attend.getEpochDay());
+                snapshot.project(attend, minutes);
+                for (int i = 0; i < students.size(); i++)
+                    writeVarint(out, minutes[i] == AttendanceMatrix.ABSENT ? 0 : minutes[i] + 1);
+            }
+
+            writeVarint(out, sessionExtras.size());
+            int s = 0;
+            for (SessionExtras extras : sessionExtras) {
+                int[] sessionRefs = extraRefs.get(s++);
+                out.writeLong(extras.getEpochDay());
+                writeVarint(out, extras.getAttendeeCount());
+                out.writeLong(extras.getTotalMinutes());
+                writeVarint(out, sessionRefs.length);
+                for (int i = 0; i < sessionRefs.length; i++) {
+                    writeVarint(out, sessionRefs[i]);
+                    writeVarint(out, extras.getMinutes(i));
+                }
+            }
+
+            Map<Date, IngestManifest.Entry> entries = snapshot.getManifestEntries();
+            writeVarint(out, entries.size());
+            for (Map.Entry<Date, IngestManifest.Entry> entry : entries.entrySet()) {
+                out.writeLong(SessionDate.epochDay(entry.getKey()));
+                out.writeUTF(entry.getValue().getPath());
+                out.writeLong(entry.getValue().getSize());
+                out.writeLong(entry.getValue().getLastModified());
+                out.writeLong(entry.getValue().getContentHash());
+            }
+        }
+    }
+
+
+    /**
+     * Replaces the blackboard contents with a snapshot file,
+     * notifying listeners once with all the changes
+     * @param file File to be read
+     */
+    public void read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not an attendance snapshot: " + file);
+            int version = readVarint(in);
+            if (version != VERSION)
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+
+            SymbolTable symbols = new SymbolTable();
+            int[] codes = new int[readVarint(in)];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < codes.length; i++) {
+                int length = readVarint(in);
+                if (length > bytes.length)
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                in.readFully(bytes, 0, length);
+                codes[i] = symbols.intern(bytes, 0, length);
+            }
+
+            List<Student> students = new ArrayList<Student>();
+            int studentCount = readVarint(in);
+            for (int i = 0; i < studentCount; i++)
+                students.add(new Student(symbols, codes[readVarint(in)], codes[readVarint(in)],
+                    codes[readVarint(in)], codes[readVarint(in)]));
+
+            List<Date> dates = new ArrayList<Date>();
+            List<int[]> columns = new ArrayList<int[]>();
+            int dateCount = readVarint(in);
+            for (int d = 0; d < dateCount; d++) {
+                dates.add(readDate(in));
+                int[] column = new int[studentCount];
+                for (int i = 0; i < studentCount; i++)
+                    column[i] = readVarint(in) - 1;
+                columns.add(column);
+            }
+
+            List<SessionExtras> sessionExtras = new ArrayList<SessionExtras>();
+            int sessionCount = readVarint(in);
+            for (int e = 0; e < sessionCount; e++) {
+                Date date = readDate(in);
+                int attendeeCount = readVarint(in);
+                long totalMinutes = in.readLong();
+                String[] asurites = new String[readVarint(in)];
+                int[] extraMinutes = new int[asurites.length];
+                for (int i = 0; i < asurites.length; i++) {
+                    asurites[i] = symbols.getString(codes[readVarint(in)]);
+                    extraMinutes[i] = readVarint(in);
+                }
+                sessionExtras.add(SessionExtras.restore(date, attendeeCount, totalMinutes, asurites, extraMinutes));
+            }
+
+            Map<Date, IngestManifest.Entry> entries = new LinkedHashMap<Date, IngestManifest.Entry>();
+            int entryCount = readVarint(in);
+            for (int i = 0; i < entryCount; i++)
+                entries.put(readDate(in),
+                    new IngestManifest.Entry(in.readUTF(), in.readLong(), in.readLong(), in.readLong()));
+
+            blackboard.beginBatch();
+            try {
+                blackboard.clearRoster();
+                blackboard.addStudents(students);
+                for (int d = 0; d < dateCount; d++)
+                    blackboard.addAttendance(dates.get(d), columns.get(d));
+                blackboard.setExtras(sessionExtras);
+                for (Map.Entry<Date, IngestManifest.Entry> entry : entries.entrySet())
+                    blackboard.putManifestEntry(entry.getKey(), entry.getValue());
+            } finally {
+                blackboard.endBatch();
+            }
+        }
+    }
+
+
+    /**
+     * Adds a symbol to the string table unless it is already there
+     * @param code Symbol code to be added
+     * @param symbols Symbol table holding the code
+     * @param refs String table references by symbol code
+     * @param strings String table in reference order
+     */
+    private static void intern(int code, SymbolTable symbols, int[] refs, List<String> strings) {
+        if (refs[code] < 0) {
+            refs[code] = strings.size();
+            strings.add(symbols.getString(code));
+        }
+    }
+
+
+    /**
+     * Reads a date stored as an epoch day
+     * @param in Stream to be read from
+     */
+    private static Date readDate(DataInputStream in) throws IOException {
+        return SessionDate.of(LocalDate.ofEpochDay(in.readLong())).getDate();
+    }
+
+
+    /**
+     * Writes a non-negative integer using seven bits per byte
+     * @param out Stream to be written to
+     * @param value Value to be written
+     */
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+
+    /**
+     * Reads an integer written by writeVarint
+     * @param in Stream to be read from
+     */
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
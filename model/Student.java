@@ -1,13 +1,17 @@
 package model;
 
-import java.util.Objects;
-
 
 /**
  * This class represents a model of a real-world student.
  * It defines the basic requisite information for any student 
  * and provides a user-defined datatype to represent the student object.
  * 
+ * The ID, names and ASURITE are held as codes of a SymbolTable,
+ * so a string shared by many students is stored only once
+ * and comparing students is an integer compare.
+ * Students are made in a table shared by a whole roster, such as the one ParseRoster fills
+ * and the blackboard then adopts, and a student of another table is re-encoded
+ * into the roster's table when it is added to the blackboard.
  *
  * @author Shrinkhala Kayastha
  * @author Mukul Mahadik
@@ -15,16 +19,28 @@ import java.util.Objects;
  */
 public class Student {
     
-    private final String id;
-    private final String firstName;
-    private final String lastName;
-    private final String asurite;
+    private final SymbolTable symbols;
+    private final int id;
+    private final int firstName;
+    private final int lastName;
+    private final int asurite;
+
+    public Student(SymbolTable symbols, String[] data) {
+        this(symbols, symbols.intern(data[0]), symbols.intern(data[1]),
+            symbols.intern(data[2]), symbols.intern(data[3]));
+    }
+
+    public Student(SymbolTable symbols, Student stud) {
+        this(symbols, symbols.intern(stud.symbols, stud.id), symbols.intern(stud.symbols, stud.firstName),
+            symbols.intern(stud.symbols, stud.lastName), symbols.intern(stud.symbols, stud.asurite));
+    }
 
-    public Student(String[] data) {
-        this.id = data[0];
-        this.firstName = data[1];
-        this.lastName = data[2];
-        this.asurite = data[3];
+    public Student(SymbolTable symbols, int id, int firstName, int lastName, int asurite) {
+        this.symbols = symbols;
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.asurite = asurite;
     }
 
     
@@ -32,7 +48,7 @@ public class Student {
      * Returns student ID
      */
     public String getId() {
-        return id;
+        return symbols.getString(id);
     }
 
     
@@ -40,7 +56,7 @@ public class Student {
      * Returns student first name
      */
     public String getFirstName() {
-        return firstName;
+        return symbols.getString(firstName);
     }
 
     
@@ -48,7 +64,7 @@ public class Student {
      * Returns student last name
      */
     public String getLastName() {
-        return lastName;
+        return symbols.getString(lastName);
     }
 
     
@@ -56,6 +72,46 @@ public class Student {
      * Returns student ASURITE
      */
     public String getAsurite() {
+        return symbols.getString(asurite);
+    }
+
+    
+    /** 
+     * Returns the symbol table holding the student's strings
+     */
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    
+    /** 
+     * Returns symbol code of the student ID
+     */
+    public int getIdCode() {
+        return id;
+    }
+
+    
+    /** 
+     * Returns symbol code of the student first name
+     */
+    public int getFirstNameCode() {
+        return firstName;
+    }
+
+    
+    /** 
+     * Returns symbol code of the student last name
+     */
+    public int getLastNameCode() {
+        return lastName;
+    }
+
+    
+    /** 
+     * Returns symbol code of the student ASURITE
+     */
+    public int getAsuriteCode() {
         return asurite;
     }
     
@@ -65,7 +121,7 @@ public class Student {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return symbols.getHash(id);
     }
 
     
@@ -78,6 +134,8 @@ public class Student {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Student stud = (Student) o;
-        return id.equals(stud.id);
+        if (symbols == stud.symbols)
+            return id == stud.id;
+        return getId().equals(stud.getId());
     }
 }
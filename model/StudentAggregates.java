@@ -0,0 +1,205 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class holds the running per-student and per-date aggregates of the attendance minutes,
+ * so summaries such as total minutes or sessions attended are answered in constant time
+ * instead of rescanning every date.
+ *
+ * The AttendanceMatrix updates it as date columns are added or replaced.
+ * Totals and counts are exact after every update. A minimum or maximum is only
+ * invalidated when the cell holding it is removed, and such students
+ * are recomputed from the matrix in one pass before the aggregates are published.
+ *
+ * Copies handed out by the matrix belong to a snapshot and are never modified.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class StudentAggregates {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] totals;
+    private int[] counts;
+    private int[] minimums;
+    private int[] maximums;
+    private int[] dateTotals;
+    private final BitSet staleExtremes;
+
+    StudentAggregates() {
+        this.totals = new int[INITIAL_CAPACITY];
+        this.counts = new int[INITIAL_CAPACITY];
+        this.minimums = new int[INITIAL_CAPACITY];
+        this.maximums = new int[INITIAL_CAPACITY];
+        this.dateTotals = new int[INITIAL_CAPACITY];
+        this.staleExtremes = new BitSet();
+    }
+
+    private StudentAggregates(StudentAggregates source, int columnCount) {
+        this.totals = source.totals.clone();
+        this.counts = source.counts.clone();
+        this.minimums = source.minimums.clone();
+        this.maximums = source.maximums.clone();
+        this.dateTotals = Arrays.copyOf(source.dateTotals, columnCount);
+        this.staleExtremes = new BitSet();
+    }
+
+
+    /**
+     * Returns total minutes attended by a student over all dates
+     * @param row Roster ordinal of the student
+     */
+    public int getTotalMinutes(int row) {
+        return row < totals.length ? totals[row] : 0;
+    }
+
+
+    /**
+     * Returns number of dates a student attended
+     * @param row Roster ordinal of the student
+     */
+    public int getSessionCount(int row) {
+        return row < counts.length ? counts[row] : 0;
+    }
+
+
+    /**
+     * Returns the fewest minutes a student attended on a date, or AttendanceMatrix.ABSENT
+     * when the student attended no date
+     * @param row Roster ordinal of the student
+     */
+    public int getMinMinutes(int row) {
+        return getSessionCount(row) == 0 ? AttendanceMatrix.ABSENT : minimums[row];
+    }
+
+
+    /**
+     * Returns the most minutes a student attended on a date, or AttendanceMatrix.ABSENT
+     * when the student attended no date
+     * @param row Roster ordinal of the student
+     */
+    public int getMaxMinutes(int row) {
+        return getSessionCount(row) == 0 ? AttendanceMatrix.ABSENT : maximums[row];
+    }
+
+
+    /**
+     * Returns total minutes attended by all students on a date
+     * @param col Date ordinal of the attendance
+     */
+    public int getDateTotal(int col) {
+        return col < dateTotals.length ? dateTotals[col] : 0;
+    }
+
+
+    /**
+     * Records minutes in a cell that was ABSENT
+     * @param row Roster ordinal of the student
+     * @param col Date ordinal of the attendance
+     * @param minutes Minutes recorded
+     */
+    void add(int row, int col, int minutes) {
+        ensureCapacity(row + 1, col + 1);
+        totals[row] += minutes;
+        dateTotals[col] += minutes;
+        if (++counts[row] == 1) {
+            minimums[row] = minutes;
+            maximums[row] = minutes;
+            staleExtremes.clear(row);
+        }
+        else {
+            minimums[row] = Math.min(minimums[row], minutes);
+            maximums[row] = Math.max(maximums[row], minutes);
+        }
+    }
+
+
+    /**
+     * Removes the minutes of a cell that becomes ABSENT
+     * @param row Roster ordinal of the student
+     * @param col Date ordinal of the attendance
+     * @param minutes Minutes removed
+     */
+    void remove(int row, int col, int minutes) {
+        totals[row] -= minutes;
+        dateTotals[col] -= minutes;
+        if (--counts[row] == 0)
+            staleExtremes.clear(row);
+        else if (minutes == minimums[row] || minutes == maximums[row])
+            staleExtremes.set(row);
+    }
+
+
+    /**
+     * Recomputes the minimum and maximum of every student whose extreme was invalidated
+     * @param columns Minute columns indexed by date ordinal
+     * @param columnCount Number of date columns
+     */
+    void refresh(int[][] columns, int columnCount) {
+        for (int row = staleExtremes.nextSetBit(0); row >= 0; row = staleExtremes.nextSetBit(row + 1)) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int col = 0; col < columnCount; col++) {
+                int[] column = columns[col];
+                if (row < column.length && column[row] != AttendanceMatrix.ABSENT) {
+                    min = Math.min(min, column[row]);
+                    max = Math.max(max, column[row]);
+                }
+            }
+            minimums[row] = min;
+            maximums[row] = max;
+        }
+        staleExtremes.clear();
+    }
+
+
+    /**
+     * Returns a copy of the aggregates for a snapshot
+     * @param columnCount Number of date columns
+     */
+    StudentAggregates copy(int columnCount) {
+        return new StudentAggregates(this, columnCount);
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the aggregates, including unused capacity
+     */
+    long estimateHeapBytes() {
+        return HeapEstimate.ofObject(6 * HeapEstimate.REFERENCE) + HeapEstimate.of(totals) + HeapEstimate.of(counts)
+            + HeapEstimate.of(minimums) + HeapEstimate.of(maximums) + HeapEstimate.of(dateTotals)
+            + HeapEstimate.ofObject(HeapEstimate.REFERENCE + 8) + staleExtremes.size() / 8;
+    }
+
+
+    /**
+     * Removes all aggregates
+     */
+    void clear() {
+        Arrays.fill(totals, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(dateTotals, 0);
+        staleExtremes.clear();
+    }
+
+
+    /**
+     * Grows the arrays so that they hold at least the given number of students and dates
+     * @param rows Minimum number of students
+     * @param cols Minimum number of dates
+     */
+    private void ensureCapacity(int rows, int cols) {
+        if (rows > totals.length) {
+            int capacity = Math.max(rows, totals.length * 2);
+            totals = Arrays.copyOf(totals, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            minimums = Arrays.copyOf(minimums, capacity);
+            maximums = Arrays.copyOf(maximums, capacity);
+        }
+        if (cols > dateTotals.length)
+            dateTotals = Arrays.copyOf(dateTotals, Math.max(cols, dateTotals.length * 2));
+    }
+}
@@ -0,0 +1,267 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class interns strings such as ASURITEs, names and IDs into compact int codes.
+ * The UTF-8 bytes of every distinct string are stored once in a single byte arena,
+ * so a repeated string costs no extra heap and two interned strings are equal
+ * exactly when their codes are equal.
+ *
+ * Lookups can be made straight from a byte slice, such as a field of a CsvReader row,
+ * without creating a string.
+ *
+ * A table has a single writer at a time, such as the blackboard holding its lock,
+ * and may be read by any number of threads while it is being interned into without locking.
+ * Arrays are only ever replaced by grown copies, and the size is published last,
+ * so a reader sees every string interned before the size it read,
+ * and treats any newer code it comes across as not found.
+ *
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class SymbolTable {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile byte[] arena;
+    private int arenaSize;
+
+    private volatile int[] offsets;
+    private volatile int[] lengths;
+    private volatile int[] hashes;
+    private volatile int size;
+
+    private volatile int[] slots;
+
+    public SymbolTable() {
+        this.arena = new byte[INITIAL_CAPACITY * 8];
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.slots = new int[INITIAL_CAPACITY * 2];
+        this.size = 0;
+    }
+
+
+    /**
+     * Returns number of distinct strings in the table
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Returns number of bytes used in the arena
+     */
+    public int getArenaSize() {
+        return arenaSize;
+    }
+
+
+    /**
+     * Returns the code of a string, adding it to the table if needed
+     * @param str String to be interned
+     */
+    public int intern(String str) {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length);
+    }
+
+
+    /**
+     * Returns the code of a UTF-8 byte slice, adding it to the table if needed
+     * @param bytes Buffer holding the string
+     * @param offset Offset of the string in the buffer
+     * @param length Length of the string in bytes
+     */
+    public int intern(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int count = size;
+        int[] table = slots;
+        int slot = findSlot(table, count, hash, bytes, offset, length);
+        if (table[slot] != 0)
+            return table[slot] - 1;
+
+        if (count == offsets.length) {
+            hashes = Arrays.copyOf(hashes, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        byte[] bytesArena = arena;
+        if (arenaSize + length > bytesArena.length) {
+            bytesArena = Arrays.copyOf(bytesArena, Math.max(arenaSize + length, bytesArena.length * 2));
+            arena = bytesArena;
+        }
+
+        System.arraycopy(bytes, offset, bytesArena, arenaSize, length);
+        offsets[count] = arenaSize;
+        lengths[count] = length;
+        hashes[count] = hash;
+        arenaSize += length;
+        table[slot] = count + 1;
+        size = count + 1;
+
+        if (size * 2 > table.length)
+            rehash(table.length * 2);
+        return count;
+    }
+
+
+    /**
+     * Returns the code in this table of a string interned in another table, adding it if needed.
+     * The bytes are copied from arena to arena without creating a string.
+     * @param table Table holding the string
+     * @param code Code of the string in that table
+     */
+    public int intern(SymbolTable table, int code) {
+        if (table == this)
+            return code;
+        int offset = table.offsets[code];
+        int length = table.lengths[code];
+        return intern(table.arena, offset, length);
+    }
+
+
+    /**
+     * Returns the code of a string, or NOT_FOUND when it has not been interned
+     * @param str String to be looked up
+     */
+    public int lookup(String str) {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        return lookup(bytes, 0, bytes.length);
+    }
+
+
+    /**
+     * Returns the code of a UTF-8 byte slice, or NOT_FOUND when it has not been interned
+     * @param bytes Buffer holding the string
+     * @param offset Offset of the string in the buffer
+     * @param length Length of the string in bytes
+     */
+    public int lookup(byte[] bytes, int offset, int length) {
+        int count = size;
+        int[] table = slots;
+        int slot = findSlot(table, count, hash(bytes, offset, length), bytes, offset, length);
+        int code = table[slot] - 1;
+        return code < count ? code : NOT_FOUND;
+    }
+
+
+    /**
+     * Returns the code in this table of a string interned in another table,
+     * or NOT_FOUND when it has not been interned here, without creating a string
+     * @param table Table holding the string
+     * @param code Code of the string in that table
+     */
+    public int lookup(SymbolTable table, int code) {
+        if (table == this)
+            return code < size ? code : NOT_FOUND;
+        int offset = table.offsets[code];
+        int length = table.lengths[code];
+        return lookup(table.arena, offset, length);
+    }
+
+
+    /**
+     * Returns the string for a code
+     * @param code Code of an interned string
+     */
+    public String getString(int code) {
+        return new String(arena, offsets[code], lengths[code], StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Returns a hash of the content of an interned string,
+     * which is the same in every table holding that string
+     * @param code Code of an interned string
+     */
+    public int getHash(int code) {
+        return hashes[code];
+    }
+
+
+    /**
+     * Returns estimated heap bytes of the table, including unused capacity
+     */
+    long estimateHeapBytes() {
+        return HeapEstimate.ofObject(6 * HeapEstimate.REFERENCE + 8) + HeapEstimate.of(arena)
+            + HeapEstimate.of(offsets) + HeapEstimate.of(lengths) + HeapEstimate.of(hashes) + HeapEstimate.of(slots);
+    }
+
+
+    /**
+     * Returns the slot holding a byte slice, or the slot where the search for it ended.
+     * A slot holding a code interned after the size was read ends the search,
+     * since every slot on the probe path of an older string holds an even older code.
+     * @param table Slots to be searched
+     * @param count Number of strings visible to the caller
+     * @param hash Hash of the slice
+     * @param bytes Buffer holding the string
+     * @param offset Offset of the string in the buffer
+     * @param length Length of the string in bytes
+     */
+    private int findSlot(int[] table, int count, int hash, byte[] bytes, int offset, int length) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int code = table[slot] - 1;
+            if (code >= count)
+                return slot;
+            if (hashes[code] == hash && matches(code, bytes, offset, length))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+
+    /**
+     * Checks whether an interned string equals a byte slice
+     * @param code Code of an interned string
+     * @param bytes Buffer holding the string
+     * @param offset Offset of the string in the buffer
+     * @param length Length of the string in bytes
+     */
+    private boolean matches(int code, byte[] bytes, int offset, int length) {
+        int start = offsets[code];
+        return lengths[code] == length
+            && Arrays.equals(arena, start, start + length, bytes, offset, offset + length);
+    }
+
+
+    /**
+     * Rebuilds the slots with the given capacity
+     * @param capacity New slot capacity, a power of two
+     */
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (newSlots[slot] != 0)
+                slot = (slot + 1) & mask;
+            newSlots[slot] = code + 1;
+        }
+        slots = newSlots;
+    }
+
+
+    /**
+     * Returns a well spread hash of a byte slice
+     * @param bytes Buffer holding the string
+     * @param offset Offset of the string in the buffer
+     * @param length Length of the string in bytes
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++)
+            hash = 31 * hash + bytes[i];
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,31 +1,37 @@
 package view;
 
 import model.Blackboard;
-import model.ParseAttendance;
-import model.ParseRoster;
+import model.CsvExporter;
+import model.MetricsRegistry;
+import model.ParsedAttendance;
+import model.SnapshotFile;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import java.awt.GridLayout;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
 import javax.swing.JFileChooser;
 import javax.swing.WindowConstants;
-import javax.swing.table.DefaultTableModel;
 
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Toolkit;
+import java.awt.BorderLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.JMenuItem;
 import java.awt.Container;
 import java.awt.GridBagLayout;
 import java.awt.GridBagConstraints;
 import java.io.File;
-import java.io.FileWriter;
-import java.util.Vector;
-import java.util.Map;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * This class generates the principal frame window for the app.
@@ -45,13 +51,13 @@ public class ApplicationGUI extends JFrame implements ActionListener {
     DisplayPanel rightPanel;
     Blackboard blackboard;
     TablePane tableData;
-    DefaultTableModel model;
+    IngestionService ingestion;
     JMenuItem[] items;
 
     public ApplicationGUI(String title) {
         super(title);
         setResizable(true);
-        setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         this.setSize((int) screenSize.getWidth() - ((int) (0.1 * screenSize.getWidth())), (int) screenSize.getHeight() - ((int) (0.1 * screenSize.getHeight())));
         int x = (int) ((screenSize.getWidth() - this.getWidth()) / 2);
@@ -71,7 +77,7 @@ public class ApplicationGUI extends JFrame implements ActionListener {
         blackboard = Blackboard.getInstance();
         tableData = TablePane.getInstance();
         rightPanel = new DisplayPanel();
-        blackboard.addObserver(rightPanel);
+        blackboard.addListener(rightPanel);
         statusBar = StatusLogger.getInstance();
         menu = new MenuPanel();
         setJMenuBar(menu.getMenuBar());
@@ -79,9 +85,89 @@ public class ApplicationGUI extends JFrame implements ActionListener {
         items = menu.getMenuOptions();
         for (JMenuItem item : items)
             item.addActionListener(this);
-        
-        if (blackboard.getStudents().isEmpty())
-            items[1].setEnabled(false);
+
+        ingestion = new IngestionService();
+        ingestion.setStateListener(this::updateMenuState);
+
+        restoreLastSession();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeApplication();
+            }
+        });
+        updateMenuState();
+    }
+
+    /**
+     * Reopens the roster and attendance data saved when the app was last closed, if any
+     */
+    private void restoreLastSession() {
+        File snapshot = getSessionFile();
+        if (!snapshot.isFile())
+            return;
+
+        try {
+            long start = System.nanoTime();
+            new SnapshotFile().read(snapshot);
+            statusBar.setMessage("Last session restored in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.out.println("Error occurred in restoring last session: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Cancels any running load or save and, once its worker has stopped,
+     * saves the session and exits
+     */
+    private void closeApplication() {
+        ingestion.cancel();
+        ingestion.whenIdle(() -> {
+            saveLastSession();
+            dispose();
+            System.exit(0);
+        });
+    }
+
+    /**
+     * Saves the roster and attendance data so that the next start reopens them,
+     * or removes the saved session when there is no roster to reopen.
+     * Must be called while no load or save is running.
+     */
+    private void saveLastSession() {
+        File snapshot = getSessionFile();
+        if (blackboard.getStudents().isEmpty()) {
+            if (snapshot.exists() && !snapshot.delete())
+                System.out.println("Error occurred in removing last session: " + snapshot);
+            return;
+        }
+
+        try {
+            snapshot.getParentFile().mkdirs();
+            new SnapshotFile().write(snapshot);
+        } catch (IOException e) {
+            System.out.println("Error occurred in saving session: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the file holding the snapshot of the last session
+     */
+    private static File getSessionFile() {
+        return new File(System.getProperty("user.home"), ".attendance" + File.separator + "last-session.snapshot");
+    }
+
+    /**
+     * Enables the menu options that are valid for the current roster and loading state
+     */
+    private void updateMenuState() {
+        boolean running = ingestion.isRunning();
+        items[0].setEnabled(!running);
+        items[1].setEnabled(!running && !blackboard.getStudents().isEmpty());
+        items[2].setEnabled(!running);
+        items[4].setEnabled(running);
     }
 
     
@@ -103,6 +189,10 @@ public class ApplicationGUI extends JFrame implements ActionListener {
         else if (e.getSource() == items[3])
             handlePlotData();
         else if (e.getSource() == items[4])
+            ingestion.cancel();
+        else if (e.getSource() == items[5])
+            handleSaveMetrics();
+        else if (e.getSource() == items[6])
             handleTeamInfo();
     }
 
@@ -155,83 +245,93 @@ public class ApplicationGUI extends JFrame implements ActionListener {
      * Handles the menu action event for plotting attendance data
      */
     public void handlePlotData() {
-        blackboard.setAction("Plot");
-        blackboard.fileParsed();
+        rightPanel.showPlot();
     }
 
     /**
-     * Handles the menu action event for loading and displaying student roster data
+     * Handles the menu action event for loading and displaying student roster data.
+     * The roster file is parsed in the background.
      */
     public void handleLoadRoster() {
-        blackboard.setAction("Load");
-
         JFileChooser fc = new JFileChooser();
         fc.setMultiSelectionEnabled(false);
         int r = fc.showOpenDialog(null);
         if (r == JFileChooser.APPROVE_OPTION) {
-
-            blackboard.clearRoster();
-            model = tableData.getTableModel();
-            model.setRowCount(0);
-            model.setColumnCount(4);    
-
             File rosterFile = fc.getSelectedFile();
-            statusBar.setMessage("Roster File loaded");
-            ParseRoster parser = new ParseRoster();
-            parser.parseRosterFile(rosterFile);
-            if (!blackboard.getStudents().isEmpty())
-                items[1].setEnabled(true);
+            ingestion.loadRoster(rosterFile, this::updateMenuState);
         }
-        else {
+        else
             statusBar.setMessage("User cancelled the operation");
-            if (!blackboard.getStudents().isEmpty())
-                items[1].setEnabled(true);
-            else if (blackboard.getStudents().isEmpty())
-                items[1].setEnabled(false);
-        }
+        updateMenuState();
     }
 
     /**
-     * Handles the menu action event for loading and displaying student attendance data
+     * Handles the menu action event for loading and displaying student attendance data.
+     * The attendance files are parsed in the background.
      */
     public void handleAddAttendance() {
-
-        blackboard.setAction("Add");
-
         JFileChooser fc = new JFileChooser();
         fc.setMultiSelectionEnabled(true);
         int r = fc.showOpenDialog(null);
         if (r == JFileChooser.APPROVE_OPTION) {
             File[] attendanceFiles = fc.getSelectedFiles();
-            statusBar.setMessage("Attendance Files loaded");
-            ParseAttendance parser = new ParseAttendance();
-            parser.parseAttendance(attendanceFiles);
-
-
-            JPanel dPane = new JPanel();
-            dPane.setLayout(new GridLayout(0,1));
-            JDialog d = new JDialog(this, "Attendance Loaded");
+            ingestion.loadAttendance(attendanceFiles, this::showExtras);
+        }
+        else {
+            statusBar.setMessage("User cancelled the operation");
+        }
+    }
 
-            Map<String, Integer> extraAttendees = blackboard.getExtras();
+    /**
+     * Displays the non-rostered attendees found in the loaded attendance files, date by date.
+     * The attendees are listed in a JList, which only renders the rows in view.
+     * @param parsed Loaded attendance files
+     */
+    private void showExtras(List<ParsedAttendance> parsed) {
+        JPanel dPane = new JPanel(new BorderLayout());
+        JDialog d = new JDialog(this, "Attendance Loaded");
+
+        ExtrasListModel extrasModel = new ExtrasListModel();
+        JList<String> extrasList = new JList<String>(extrasModel);
+        extrasList.setPrototypeCellValue("    xxxxxxxxxxxxxxxx connected for 0000 minutes");
+        for (ParsedAttendance result : parsed)
+            extrasModel.addSession(result.getExtras());
+
+        JLabel label1 = new JLabel(extrasModel.getAttendeeCount() + " additional attendee(s) found: ");
+        dPane.add(label1, BorderLayout.NORTH);
+        dPane.add(new JScrollPane(extrasList), BorderLayout.CENTER);
+        d.add(dPane);
+        d.setSize(500, 500);
+        d.setVisible(true);
+    }
 
-            JLabel label1 = new JLabel(extraAttendees.size() + " additional attendee(s) found: ");
-            dPane.add(label1);
-    
-            for (String asurite : extraAttendees.keySet()) {
-                JLabel label2 = new JLabel(asurite + " connected for " + blackboard.getExtras().get(asurite) + " minutes");
-                dPane.add(label2);
+    /**
+     * Handles the menu action event for saving the runtime metrics to a CSV file,
+     * so the timings of different releases can be compared
+     */
+    public void handleSaveMetrics() {
+        JFileChooser fc = new JFileChooser();
+        fc.setMultiSelectionEnabled(false);
+        int r = fc.showSaveDialog(null);
+        if (r == JFileChooser.APPROVE_OPTION) {
+            File metricsFile = fc.getSelectedFile();
+            if (!metricsFile.getName().endsWith(".csv"))
+                metricsFile = new File(metricsFile + ".csv");
+            try {
+                MetricsRegistry.getInstance().dump(metricsFile);
+                statusBar.setMessage("Metrics saved to " + metricsFile.getName());
+            } catch (IOException e) {
+                statusBar.setMessage("Error occurred in saving metrics: " + e.getMessage());
             }
-            d.add(dPane);
-            d.setSize(500, 500);
-            d.setVisible(true);
         }
-        else {
+        else
             statusBar.setMessage("User cancelled the operation");
-        }
     }
 
     /**
-     * Handles the menu action event for saving displayed student data
+     * Handles the menu action event for saving displayed student data.
+     * The data is written in the background, gzip compressed when the file name ends with .gz,
+     * and limited to the selected students when rows are selected in the table.
      */
     public void handleSaveData() {
 
@@ -240,48 +340,25 @@ public class ApplicationGUI extends JFrame implements ActionListener {
         int r = fc.showSaveDialog(null);
         if (r == JFileChooser.APPROVE_OPTION) {
 
-            File rosterFile = fc.getSelectedFile();
-            rosterFile = new File(fc.getSelectedFile() + ".csv");
-            statusBar.setMessage("Table data saved successfully");
-
-            String DELIMITER = ",";
-            String SEPARATOR = "\n";
-            String HEADER = "";
-
-            model = tableData.getTableModel();
-
-            int numberRows = model.getRowCount();
-            int numberColumns = model.getColumnCount();
-            String[] headers = new String[numberColumns];
-
-            for (int i = 0; i < numberColumns; i++)
-                headers[i] =  model.getColumnName(i);
-
-            HEADER = String.join(DELIMITER + " ", headers);
-            
-            
-            try
-            {
-                FileWriter saveFileWrite = new FileWriter(rosterFile);
-                saveFileWrite.append(HEADER);
-                saveFileWrite.append(SEPARATOR);
-
-                Vector allData = model.getDataVector();
-                for (int i = 0; i < numberRows; i++) {
-                    Vector<String> row = (Vector<String>)allData.elementAt(i);
-                    String rowData = String.join(DELIMITER + " ", row);
-                    saveFileWrite.append(rowData);
-
-                    saveFileWrite.append(SEPARATOR);
-                }
-                saveFileWrite.close();
-
-            } catch(Exception e) {
-                e.printStackTrace();
+            File saveFile = fc.getSelectedFile();
+            boolean compressed = saveFile.getName().endsWith(".gz");
+            if (!compressed && !saveFile.getName().endsWith(".csv"))
+                saveFile = new File(saveFile + ".csv");
+
+            CsvExporter exporter = new CsvExporter();
+            exporter.setCompressed(compressed);
+
+            int[] selectedRows = tableData.getJTable().getSelectedRows();
+            if (selectedRows.length > 0) {
+                BitSet students = new BitSet(blackboard.getStudentCount());
+                for (int row : selectedRows)
+                    students.set(tableData.getJTable().convertRowIndexToModel(row));
+                exporter.setStudents(students);
             }
+
+            ingestion.saveData(exporter, saveFile);
         }
         else
             statusBar.setMessage("User cancelled the operation");
     }
 }
-
@@ -0,0 +1,230 @@
+package view;
+
+import model.Attendance;
+import model.AttendanceMatrix;
+import model.Blackboard;
+import model.BlackboardSnapshot;
+import model.Student;
+import model.StudentAggregates;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is the table model behind the roster and attendance table.
+ * Instead of copying every cell into vectors, it reads each cell on demand
+ * from a snapshot of the blackboard's student roster and attendance minutes,
+ * so only the cells that are actually painted are ever looked up.
+ * The snapshot is taken whenever the rows or columns are synchronized with the blackboard,
+ * so the table always paints one consistent version of the data
+ * even while files are being loaded.
+ *
+ * The first four columns hold the roster data, the next five hold each student's
+ * attendance summary read from the snapshot's precomputed aggregates,
+ * and every further column holds the attendance minutes for one date.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class AttendanceTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int ROSTER_COLUMNS = 4;
+    public static final int SUMMARY_COLUMNS = 5;
+    public static final int FIXED_COLUMNS = ROSTER_COLUMNS + SUMMARY_COLUMNS;
+
+    private static final String[] ROSTER_HEADERS = {"ID", "First Name", "Last Name", "ASURITE"};
+    private static final String[] SUMMARY_HEADERS = {"Total Minutes", "Sessions", "Attendance %", "Min Minutes", "Max Minutes"};
+
+    private final Blackboard blackboard;
+    private final List<Attendance> dateColumns;
+    private final List<String> dateHeaders;
+    private int rowCount;
+    private BlackboardSnapshot view;
+
+    public AttendanceTableModel() {
+        this.blackboard = Blackboard.getInstance();
+        this.view = blackboard.getSnapshot();
+        this.dateColumns = new ArrayList<Attendance>();
+        this.dateHeaders = new ArrayList<String>();
+        this.rowCount = 0;
+    }
+
+
+    /**
+     * Returns number of students shown in the table
+     */
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+
+    /**
+     * Returns number of roster and date columns
+     */
+    @Override
+    public int getColumnCount() {
+        return FIXED_COLUMNS + dateColumns.size();
+    }
+
+
+    /**
+     * Returns header of a column
+     * @param column Model column index
+     */
+    @Override
+    public String getColumnName(int column) {
+        if (column < ROSTER_COLUMNS)
+            return ROSTER_HEADERS[column];
+        if (column < FIXED_COLUMNS)
+            return SUMMARY_HEADERS[column - ROSTER_COLUMNS];
+        return dateHeaders.get(column - FIXED_COLUMNS);
+    }
+
+
+    /**
+     * Returns type of the values in a column
+     * @param column Model column index
+     */
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column < ROSTER_COLUMNS ? String.class : Integer.class;
+    }
+
+
+    /**
+     * Returns the value of a cell, read from the blackboard snapshot,
+     * or null when the student did not attend on that date or on any date
+     * @param row Roster ordinal of the student
+     * @param column Model column index
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column < ROSTER_COLUMNS) {
+            Student stud = view.getStudent(row);
+            switch (column) {
+                case 0: return stud.getId();
+                case 1: return stud.getFirstName();
+                case 2: return stud.getLastName();
+                default: return stud.getAsurite();
+            }
+        }
+        if (column < FIXED_COLUMNS)
+            return getSummaryValue(row, column - ROSTER_COLUMNS);
+        int minutes = view.getMinutes(row, dateColumns.get(column - FIXED_COLUMNS));
+        return minutes == AttendanceMatrix.ABSENT ? null : Integer.valueOf(minutes);
+    }
+
+
+    /**
+     * Returns the attendance shown in a date column
+     * @param column Model column index
+     */
+    public Attendance getAttendance(int column) {
+        return dateColumns.get(column - FIXED_COLUMNS);
+    }
+
+
+    /**
+     * Returns a student's attendance summary value, each answered in constant time
+     * from the aggregates of the blackboard snapshot
+     * @param row Roster ordinal of the student
+     * @param summary Index of the summary column
+     */
+    private Integer getSummaryValue(int row, int summary) {
+        StudentAggregates aggregates = view.getAggregates();
+        int value;
+        switch (summary) {
+            case 0: value = aggregates.getTotalMinutes(row); break;
+            case 1: value = aggregates.getSessionCount(row); break;
+            case 2: value = view.getAttendanceRate(row); break;
+            case 3: value = aggregates.getMinMinutes(row); break;
+            default: value = aggregates.getMaxMinutes(row); break;
+        }
+        return value == AttendanceMatrix.ABSENT ? null : Integer.valueOf(value);
+    }
+
+
+    /**
+     * Synchronizes the rows with the blackboard roster,
+     * firing row events only for the rows that were removed or added
+     */
+    public void rosterChanged() {
+        view = blackboard.getSnapshot();
+        int oldCount = rowCount;
+        int newCount = view.getStudentCount();
+        if (oldCount > 0) {
+            rowCount = 0;
+            fireTableRowsDeleted(0, oldCount - 1);
+        }
+        if (newCount > 0) {
+            rowCount = newCount;
+            fireTableRowsInserted(0, newCount - 1);
+        }
+    }
+
+
+    /**
+     * Appends rows for students added to the end of the roster
+     * @param firstStudent Roster ordinal of the first student added
+     * @param lastStudent Roster ordinal just past the last student added
+     */
+    public void studentsAdded(int firstStudent, int lastStudent) {
+        view = blackboard.getSnapshot();
+        if (lastStudent <= rowCount)
+            return;
+        int first = Math.max(firstStudent, rowCount);
+        rowCount = lastStudent;
+        fireTableRowsInserted(first, lastStudent - 1);
+    }
+
+
+    /**
+     * Notifies the table that every cell of one date column has changed
+     * @param column Model column index
+     */
+    public void dateColumnChanged(int column) {
+        view = blackboard.getSnapshot();
+        if (rowCount > 0)
+            fireTableChanged(new TableModelEvent(this, 0, rowCount - 1, column));
+        summaryChanged();
+    }
+
+
+    /**
+     * Appends a date column for an attendance and returns its model column index
+     * @param attend Attendance to be shown
+     */
+    public int addDateColumn(Attendance attend) {
+        view = blackboard.getSnapshot();
+        dateColumns.add(attend);
+        dateHeaders.add(attend.getFormattedDate());
+        summaryChanged();
+        return getColumnCount() - 1;
+    }
+
+
+    /**
+     * Removes all date columns, leaving the roster and summary columns
+     */
+    public void clearDateColumns() {
+        dateColumns.clear();
+        dateHeaders.clear();
+    }
+
+
+    /**
+     * Notifies the table that the summary columns of every row have changed
+     */
+    private void summaryChanged() {
+        if (rowCount == 0)
+            return;
+        for (int column = ROSTER_COLUMNS; column < FIXED_COLUMNS; column++)
+            fireTableChanged(new TableModelEvent(this, 0, rowCount - 1, column));
+    }
+}
@@ -0,0 +1,93 @@
+package view;
+
+import model.SessionExtras;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is the list model behind the non-rostered attendees shown in the
+ * "Attendance Loaded" dialog.
+ * Sessions are appended one at a time, and each row's text is only built
+ * when the list asks for it, so the dialog opens at once however long the guest list is.
+ *
+ * Every session is shown as a heading row followed by one row per attendee kept,
+ * most minutes first, and a closing row counting any attendees that were not kept.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class ExtrasListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<SessionExtras> sessions;
+    private int[] firstRows;
+    private int size;
+    private int attendeeCount;
+
+    public ExtrasListModel() {
+        this.sessions = new ArrayList<SessionExtras>();
+        this.firstRows = new int[8];
+        this.size = 0;
+        this.attendeeCount = 0;
+    }
+
+
+    /**
+     * Appends the rows of a session's non-rostered attendees
+     * @param extras Extra students of the session
+     */
+    public void addSession(SessionExtras extras) {
+        if (sessions.size() == firstRows.length)
+            firstRows = Arrays.copyOf(firstRows, sessions.size() * 2);
+        firstRows[sessions.size()] = size;
+        sessions.add(extras);
+
+        int first = size;
+        size += 1 + extras.size() + (extras.isTruncated() ? 1 : 0);
+        attendeeCount += extras.getAttendeeCount();
+        fireIntervalAdded(this, first, size - 1);
+    }
+
+
+    /**
+     * Returns number of non-rostered attendees over all sessions shown
+     */
+    public int getAttendeeCount() {
+        return attendeeCount;
+    }
+
+
+    /**
+     * Returns number of rows in the list
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+
+    /**
+     * Returns the text of a row
+     * @param index Row index
+     */
+    @Override
+    public String getElementAt(int index) {
+        int session = Arrays.binarySearch(firstRows, 0, sessions.size(), index);
+        if (session < 0)
+            session = -session - 2;
+        SessionExtras extras = sessions.get(session);
+        int row = index - firstRows[session];
+
+        if (row == 0)
+            return extras.getSession().getLabel() + ": " + extras.getAttendeeCount()
+                + " additional attendee(s), " + extras.getTotalMinutes() + " minutes";
+        if (row <= extras.size())
+            return "    " + extras.getAsurite(row - 1) + " connected for " + extras.getMinutes(row - 1) + " minutes";
+        return "    ... and " + (extras.getAttendeeCount() - extras.size()) + " more";
+    }
+}
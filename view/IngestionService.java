@@ -0,0 +1,214 @@
+package view;
+
+import model.Blackboard;
+import model.CsvExporter;
+import model.ParseAttendance;
+import model.ParseRoster;
+import model.ParsedAttendance;
+import model.Student;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class loads roster and attendance files in the background.
+ * Selecting and parsing files runs on worker threads while the status bar reports
+ * bytes and rows processed with an estimated time remaining.
+ * Only the final blackboard update, delivered to listeners as a single batch of changes,
+ * is carried out on the Swing event thread once parsing has finished.
+ * A running load can be cancelled, in which case nothing is stored.
+ * Table data is saved the same way, streamed to file on a worker thread.
+ * Only one load or save runs at a time.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class IngestionService {
+
+    private final Blackboard blackboard;
+    private final StatusLogger statusBar;
+
+    private Runnable canceller;
+    private Runnable stateListener;
+    private final List<Runnable> idleTasks;
+
+    public IngestionService() {
+        this.blackboard = Blackboard.getInstance();
+        this.statusBar = StatusLogger.getInstance();
+        this.idleTasks = new ArrayList<Runnable>();
+    }
+
+
+    /**
+     * Sets the task run on the event thread whenever a load starts or finishes
+     * @param stateListener Task to be run
+     */
+    public void setStateListener(Runnable stateListener) {
+        this.stateListener = stateListener;
+    }
+
+
+    /**
+     * Checks whether a load or save is currently running
+     */
+    public boolean isRunning() {
+        return canceller != null;
+    }
+
+
+    /**
+     * Cancels the running load or save, if any
+     */
+    public void cancel() {
+        if (canceller != null) {
+            canceller.run();
+            statusBar.setMessage("Cancelling...");
+        }
+    }
+
+
+    /**
+     * Runs a task on the event thread once no load or save is running,
+     * at once when idle, or else after the running worker has finished and committed
+     * @param task Task to be run
+     */
+    public void whenIdle(Runnable task) {
+        if (isRunning())
+            idleTasks.add(task);
+        else
+            task.run();
+    }
+
+
+    /**
+     * Parses a roster file in the background and then replaces the roster in the blackboard
+     * @param file Roster file to be parsed
+     * @param onLoaded Task run on the event thread after the roster is stored
+     */
+    public void loadRoster(File file, Runnable onLoaded) {
+        ParseRoster parser = new ParseRoster();
+        ProgressWorker<List<Student>> worker = new ProgressWorker<List<Student>>("Loading roster") {
+            @Override
+            protected List<Student> doInBackground() throws Exception {
+                parser.setProgressListener(this);
+                return parser.parseRoster(file);
+            }
+
+            @Override
+            protected void commit(List<Student> students) {
+                blackboard.beginBatch();
+                try {
+                    blackboard.clearRoster();
+                    parser.commit(students);
+                } finally {
+                    blackboard.endBatch();
+                }
+                statusBar.setMessage("Roster File loaded: " + students.size() + " student(s), "
+                    + parser.getReport().getSummary());
+                onLoaded.run();
+            }
+        };
+        start(worker, parser::cancel);
+    }
+
+
+    /**
+     * Parses attendance files in the background and then adds them to the blackboard in date order
+     * @param files Attendance files to be parsed
+     * @param onLoaded Called on the event thread with the stored attendance after it is added
+     */
+    public void loadAttendance(File[] files, Consumer<List<ParsedAttendance>> onLoaded) {
+        ParseAttendance parser = new ParseAttendance();
+        ProgressWorker<List<ParsedAttendance>> worker = new ProgressWorker<List<ParsedAttendance>>("Loading attendance") {
+            @Override
+            protected List<ParsedAttendance> doInBackground() {
+                parser.setProgressListener(this);
+                return parser.parseFiles(parser.selectFiles(files));
+            }
+
+            @Override
+            protected void commit(List<ParsedAttendance> parsed) {
+                int[] outcomes = new int[ParseAttendance.Outcome.values().length];
+                blackboard.beginBatch();
+                try {
+                    for (ParsedAttendance result : parsed)
+                        outcomes[parser.commit(result).ordinal()]++;
+                } finally {
+                    blackboard.endBatch();
+                }
+                statusBar.setMessage("Attendance Files loaded: "
+                    + outcomes[ParseAttendance.Outcome.ADDED.ordinal()] + " new date(s), "
+                    + outcomes[ParseAttendance.Outcome.REPLACED.ordinal()] + " updated date(s), "
+                    + outcomes[ParseAttendance.Outcome.UNCHANGED.ordinal()] + " date(s) with unchanged content, "
+                    + (files.length - parsed.size() - parser.getSkippedFiles().size()) + " unchanged or duplicate file(s), "
+                    + parser.getSkippedFiles().size() + " file(s) without a date");
+                onLoaded.accept(parsed);
+            }
+        };
+        start(worker, parser::cancel);
+    }
+
+
+    /**
+     * Saves the roster and attendance data to a file in the background
+     * @param exporter Exporter configured with the rows, dates and compression to be saved
+     * @param file File to be written
+     */
+    public void saveData(CsvExporter exporter, File file) {
+        ProgressWorker<Long> worker = new ProgressWorker<Long>("Saving table data") {
+            @Override
+            protected Long doInBackground() throws Exception {
+                exporter.setProgressListener(this);
+                return exporter.export(file);
+            }
+
+            @Override
+            protected void commit(Long rows) {
+                if (exporter.isCancelled())
+                    statusBar.setMessage("Saving cancelled, " + file.getName() + " is incomplete");
+                else
+                    statusBar.setMessage("Table data saved successfully: " + rows + " row(s) to " + file.getName());
+            }
+        };
+        start(worker, exporter::cancel);
+    }
+
+
+    /**
+     * Starts a worker unless another load or save is already running
+     * @param worker Worker to be started
+     * @param cancelTask Task that cancels the worker's parser
+     */
+    private void start(ProgressWorker<?> worker, Runnable cancelTask) {
+        if (isRunning()) {
+            statusBar.setMessage("Another file operation is already running");
+            return;
+        }
+        canceller = () -> {
+            cancelTask.run();
+            worker.cancel(false);
+        };
+        worker.setOnFinished(() -> {
+            canceller = null;
+            fireStateChanged();
+            List<Runnable> tasks = new ArrayList<Runnable>(idleTasks);
+            idleTasks.clear();
+            for (Runnable task : tasks)
+                task.run();
+        });
+        fireStateChanged();
+        worker.execute();
+    }
+
+
+    /**
+     * Runs the state listener, if any
+     */
+    private void fireStateChanged() {
+        if (stateListener != null)
+            stateListener.run();
+    }
+}
@@ -20,11 +20,11 @@ import java.util.LinkedHashMap;
 public class MenuPanel {
 
     JMenuBar menuBar;
-    JMenuItem[] options = new JMenuItem[5];
+    JMenuItem[] options = new JMenuItem[7];
     JMenu[] choices = new JMenu[2];
     
     LinkedHashMap<String, String[]> menuTitles = new LinkedHashMap<String, String[]>() {{
-        put("File", new String[] {"Load Roster", "Add Attendance", "Save Data", "Plot Data"});
+        put("File", new String[] {"Load Roster", "Add Attendance", "Save Data", "Plot Data", "Cancel", "Save Metrics"});
         put("About", new String[] {"View Team Details"});
     }};
 
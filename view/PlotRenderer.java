@@ -0,0 +1,207 @@
+package view;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+/**
+ * This class draws the datewise attendance bar plot.
+ * The y axis is scaled to the largest attendance count with evenly rounded tick values,
+ * and the x axis spreads the dates over the available width.
+ * When there are more dates than the width can show, neighbouring dates are
+ * combined into one bar holding their highest count, and date labels are thinned out
+ * so they never overlap.
+ *
+ * The plot is rendered into an image that is only redrawn when the data
+ * or the panel size changes, so repainting costs the same however many dates are loaded.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+public class PlotRenderer {
+
+    private static final int LEFT_MARGIN = 110;
+    private static final int RIGHT_MARGIN = 40;
+    private static final int TOP_MARGIN = 40;
+    private static final int BOTTOM_MARGIN = 70;
+
+    private static final int MIN_SLOT_WIDTH = 4;
+    private static final int MAX_BAR_WIDTH = 6;
+    private static final int LABEL_GAP = 10;
+    private static final int TARGET_TICKS = 8;
+
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color FOREGROUND = Color.GRAY;
+    private static final Stroke AXIS_STROKE = new BasicStroke(1f);
+
+    private String[] labels;
+    private int[] values;
+
+    private BufferedImage image;
+    private boolean dirty;
+
+    public PlotRenderer() {
+        this.labels = new String[0];
+        this.values = new int[0];
+        this.dirty = true;
+    }
+
+
+    /**
+     * Sets the plotted data, in plot order
+     * @param attendCount Attendance count by formatted date
+     */
+    public void setData(Map<String, Integer> attendCount) {
+        labels = new String[attendCount.size()];
+        values = new int[attendCount.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : attendCount.entrySet()) {
+            labels[i] = entry.getKey();
+            values[i++] = entry.getValue();
+        }
+        dirty = true;
+    }
+
+
+    /**
+     * Draws the plot, rendering it again only when the data or the size has changed
+     * @param g Graphics to be drawn on
+     * @param width Width of the plot in pixels
+     * @param height Height of the plot in pixels
+     */
+    public void paint(Graphics g, int width, int height) {
+        if (width <= 0 || height <= 0)
+            return;
+        if (dirty || image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = render(width, height);
+            dirty = false;
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+
+    /**
+     * Renders the axes, bars and labels into a new image
+     * @param width Width of the image in pixels
+     * @param height Height of the image in pixels
+     */
+    private BufferedImage render(int width, int height) {
+        BufferedImage rendered = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = rendered.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(BACKGROUND);
+            g2.fillRect(0, 0, width, height);
+            g2.setColor(FOREGROUND);
+
+            int plotWidth = width - LEFT_MARGIN - RIGHT_MARGIN;
+            int plotHeight = height - TOP_MARGIN - BOTTOM_MARGIN;
+            if (plotWidth > 0 && plotHeight > 0)
+                renderPlot(g2, width, height, plotWidth, plotHeight);
+        } finally {
+            g2.dispose();
+        }
+        return rendered;
+    }
+
+
+    /**
+     * Renders the plot area of the image
+     * @param g2 Graphics of the image
+     * @param width Width of the image in pixels
+     * @param height Height of the image in pixels
+     * @param plotWidth Width of the plot area in pixels
+     * @param plotHeight Height of the plot area in pixels
+     */
+    private void renderPlot(Graphics2D g2, int width, int height, int plotWidth, int plotHeight) {
+        FontMetrics metrics = g2.getFontMetrics();
+        int baseline = TOP_MARGIN + plotHeight;
+
+        int maxValue = 0;
+        for (int value : values)
+            maxValue = Math.max(maxValue, value);
+        int tickStep = niceStep(Math.max(maxValue, 1) / (double) TARGET_TICKS);
+        int yMax = Math.max(tickStep, (maxValue + tickStep - 1) / tickStep * tickStep);
+
+        g2.setStroke(AXIS_STROKE);
+        g2.drawLine(LEFT_MARGIN, TOP_MARGIN, LEFT_MARGIN, baseline);
+        g2.drawLine(LEFT_MARGIN, baseline, LEFT_MARGIN + plotWidth, baseline);
+        for (int tick = 0; tick <= yMax; tick += tickStep) {
+            int y = baseline - scale(tick, yMax, plotHeight);
+            String text = Integer.toString(tick);
+            g2.drawString(text, LEFT_MARGIN - LABEL_GAP - metrics.stringWidth(text), y + metrics.getAscent() / 2);
+        }
+
+        int slots = Math.min(values.length, Math.max(1, plotWidth / MIN_SLOT_WIDTH));
+        double slotWidth = (double) plotWidth / slots;
+        int barWidth = (int) Math.max(1, Math.min(MAX_BAR_WIDTH, slotWidth * 0.6));
+        int labelWidth = 0;
+        for (String label : labels)
+            labelWidth = Math.max(labelWidth, metrics.stringWidth(label));
+        int labelEvery = (int) Math.ceil((labelWidth + LABEL_GAP) / slotWidth);
+        boolean showCounts = slots == values.length && slotWidth >= labelWidth / 2.0;
+
+        g2.setStroke(new BasicStroke(barWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
+        for (int slot = 0; slot < slots; slot++) {
+            int first = (int) ((long) slot * values.length / slots);
+            int last = (int) ((long) (slot + 1) * values.length / slots);
+            int value = 0;
+            for (int i = first; i < last; i++)
+                value = Math.max(value, values[i]);
+
+            int x = LEFT_MARGIN + (int) ((slot + 0.5) * slotWidth);
+            int y = baseline - scale(value, yMax, plotHeight);
+            if (value > 0)
+                g2.drawLine(x, baseline, x, y);
+
+            if (showCounts) {
+                String text = Integer.toString(value);
+                g2.drawString(text, x - metrics.stringWidth(text) / 2, y - 5);
+            }
+            if (slot % labelEvery == 0)
+                g2.drawString(labels[first], x - metrics.stringWidth(labels[first]) / 2, baseline + LABEL_GAP + metrics.getAscent());
+        }
+
+        g2.setStroke(AXIS_STROKE);
+        g2.drawString("Dates", LEFT_MARGIN + (plotWidth - metrics.stringWidth("Dates")) / 2, height - LABEL_GAP);
+        AffineTransform defaultAt = g2.getTransform();
+        g2.rotate(-Math.PI / 2);
+        g2.drawString("No. of Students", -(TOP_MARGIN + (plotHeight + metrics.stringWidth("No. of Students")) / 2), LEFT_MARGIN / 3);
+        g2.setTransform(defaultAt);
+    }
+
+
+    /**
+     * Returns the height in pixels of a value on the y axis
+     * @param value Value to be scaled
+     * @param yMax Value at the top of the y axis
+     * @param plotHeight Height of the plot area in pixels
+     */
+    private static int scale(int value, int yMax, int plotHeight) {
+        return (int) Math.round((double) value * plotHeight / yMax);
+    }
+
+
+    /**
+     * Returns the smallest tick step of 1, 2 or 5 times a power of ten
+     * that is at least the requested step
+     * @param rawStep Requested tick step
+     */
+    private static int niceStep(double rawStep) {
+        int magnitude = 1;
+        while (true) {
+            if (magnitude >= rawStep) return magnitude;
+            if (2 * magnitude >= rawStep) return 2 * magnitude;
+            if (5 * magnitude >= rawStep) return 5 * magnitude;
+            magnitude *= 10;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package view;
+
+import model.ProgressListener;
+
+import javax.swing.SwingWorker;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class runs a long file operation on a worker thread, publishing its progress
+ * to the status bar and committing its result on the Swing event thread.
+ *
+ * @author Shrinkhala Kayastha
+ * @author Mukul Mahadik
+ * @version 1.0
+ */
+abstract class ProgressWorker<T> extends SwingWorker<T, String> implements ProgressListener {
+
+    private final String label;
+    private final long startTime;
+    private final StatusLogger statusBar;
+    private Runnable onFinished;
+
+    ProgressWorker(String label) {
+        this.label = label;
+        this.startTime = System.nanoTime();
+        this.statusBar = StatusLogger.getInstance();
+    }
+
+
+    /**
+     * Handles the result on the event thread once the work has completed
+     * @param result Result of the work
+     */
+    protected abstract void commit(T result);
+
+
+    /**
+     * Sets the task run on the event thread once the worker has finished, whatever the outcome
+     * @param onFinished Task to be run
+     */
+    void setOnFinished(Runnable onFinished) {
+        this.onFinished = onFinished;
+    }
+
+
+    /**
+     * Publishes progress with an estimated time remaining
+     */
+    @Override
+    public void progress(long bytesRead, long totalBytes, long rowsRead) {
+        StringBuilder message = new StringBuilder(label)
+            .append(": ").append(bytesRead / 1024).append(" KB");
+        if (totalBytes > 0) {
+            message.append(" of ").append(totalBytes / 1024).append(" KB");
+            if (bytesRead > 0 && bytesRead < totalBytes) {
+                long elapsed = System.nanoTime() - startTime;
+                long remaining = (long) (elapsed * ((double) (totalBytes - bytesRead) / bytesRead));
+                message.append(", about ").append(remaining / 1_000_000_000L + 1).append(" s left");
+            }
+        }
+        message.append(", ").append(rowsRead).append(" rows");
+        publish(message.toString());
+    }
+
+
+    /**
+     * Publishes a file that is not parsed
+     */
+    @Override
+    public void skipped(File file, String reason) {
+        publish(label + ": skipped " + file.getName() + ", " + reason);
+    }
+
+
+    /**
+     * Shows the latest progress message in the status bar
+     */
+    @Override
+    protected void process(List<String> messages) {
+        if (!isCancelled())
+            statusBar.setMessage(messages.get(messages.size() - 1));
+    }
+
+
+    /**
+     * Commits the result, or reports cancellation or failure
+     */
+    @Override
+    protected void done() {
+        try {
+            commit(get());
+        } catch (CancellationException e) {
+            statusBar.setMessage("User cancelled the operation");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            statusBar.setMessage("Error occurred in " + label.toLowerCase() + ": " + e.getCause().getMessage());
+            e.getCause().printStackTrace();
+        } finally {
+            if (onFinished != null)
+                onFinished.run();
+        }
+    }
+}
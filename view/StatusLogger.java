@@ -1,5 +1,7 @@
 package view;
 
+import model.MetricsRegistry;
+
 import javax.swing.JLabel;
 import javax.swing.*;
 import java.awt.*;
@@ -9,6 +11,8 @@ import java.awt.*;
  * all the major actions occurred in the application.
  * It generates a JPanel and updates a nested JLabel to indicate 
  * the latest action triggered by the user or the system.
+ * A second label on the right shows a summary of the runtime metrics,
+ * refreshed every few seconds.
  * 
  *
  * @author Shrinkhala Kayastha
@@ -19,7 +23,10 @@ public class StatusLogger extends JPanel {
 
     private static volatile StatusLogger INSTANCE;
 
+    private static final int METRICS_REFRESH_MILLIS = 2000;
+
     private JLabel statusLabel;
+    private JLabel metricsLabel;
 
     private StatusLogger() {
         setLayout(new BorderLayout(1,1));
@@ -28,6 +35,12 @@ public class StatusLogger extends JPanel {
         statusLabel.setBorder(BorderFactory.createLoweredBevelBorder());
         statusLabel.setForeground(Color.BLACK);
         add(BorderLayout.CENTER, statusLabel);
+
+        metricsLabel = new JLabel();
+        metricsLabel.setForeground(Color.DARK_GRAY);
+        add(BorderLayout.EAST, metricsLabel);
+        Timer refresh = new Timer(METRICS_REFRESH_MILLIS, e -> refreshMetrics());
+        refresh.start();
     }
 
     
@@ -56,4 +69,14 @@ public class StatusLogger extends JPanel {
         else
             statusLabel.setText(message);
     }
+
+    
+    /** 
+     * Shows the latest summary of the runtime metrics
+     */
+    public void refreshMetrics() {
+        String summary = MetricsRegistry.getInstance().getSummary();
+        metricsLabel.setText(summary);
+        metricsLabel.setToolTipText(summary.isEmpty() ? null : "<html>" + summary.replace(" | ", "<br>") + "</html>");
+    }
 }
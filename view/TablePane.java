@@ -1,18 +1,24 @@
 package view;
 
-import javax.swing.table.DefaultTableModel;
+import model.Attendance;
+import model.SessionDate;
+
 import javax.swing.JTable;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import javax.swing.JScrollPane;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class builds a model of the backend table which 
  * contains all the input data read from the input files.
  * The table model can be updated dynamically during runtime
  * to accomodate more data.
+ * Table columns are managed here rather than recreated from the model,
+ * so adding a date column only adds that one column to the table.
+ * Date columns are also indexed by epoch day for constant time lookup.
  * 
  *
  * @author Shrinkhala Kayastha
@@ -24,24 +30,20 @@ public class TablePane {
     private static volatile TablePane INSTANCE;
 
     private JScrollPane jsp;
-    private DefaultTableModel model;
+    private static final int COLUMN_WIDTH = 300;
+
+    private AttendanceTableModel model;
     private JTable dataTable;
     private TableColumnModel colModel;
 
-    private List<String> colNames = new ArrayList<String>();
+    private Map<Long, Integer> dateColumns = new HashMap<Long, Integer>();
 
     private TablePane() {
-        model = new DefaultTableModel();
+        model = new AttendanceTableModel();
         dataTable = new JTable(model);
+        dataTable.setAutoCreateColumnsFromModel(false);
         dataTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
-
-        colNames.add("ID");
-        colNames.add("First Name");
-        colNames.add("Last Name");
-        colNames.add("ASURITE");
-
-        for (String col : colNames)
-            model.addColumn(col);
+        colModel = dataTable.getColumnModel();
 
         jsp = new JScrollPane(this.dataTable,
             JScrollPane.VERTICAL_SCROLLBAR_ALWAYS,
@@ -76,7 +78,7 @@ public class TablePane {
     /** 
      * Returns GUI table model
      */
-    public DefaultTableModel getTableModel() {
+    public AttendanceTableModel getTableModel() {
         return model;
     }
 
@@ -96,27 +98,61 @@ public class TablePane {
         colModel = dataTable.getColumnModel();
         for (int i = 0; i < colModel.getColumnCount(); i++) {
             TableColumn column = colModel.getColumn(i);
-            column.setPreferredWidth(300);
+            column.setPreferredWidth(COLUMN_WIDTH);
         }
     }
 
     /** 
-     * Returns GUI table columns
+     * Adds a date column showing an attendance to the table
+     * @param attend Attendance to be shown
+     */
+    public void addDateColumn(Attendance attend) {
+        int modelIndex = model.addDateColumn(attend);
+        dateColumns.put(attend.getEpochDay(), modelIndex);
+        TableColumn column = new TableColumn(modelIndex, COLUMN_WIDTH);
+        column.setHeaderValue(model.getColumnName(modelIndex));
+        dataTable.addColumn(column);
+    }
+
+    
+    /** 
+     * Removes all date columns from the table, leaving the roster and summary columns
+     */
+    public void clearDateColumns() {
+        for (int i = colModel.getColumnCount() - 1; i >= 0; i--)
+            if (colModel.getColumn(i).getModelIndex() >= AttendanceTableModel.FIXED_COLUMNS)
+                dataTable.removeColumn(colModel.getColumn(i));
+        model.clearDateColumns();
+        dateColumns.clear();
+    }
+
+    
+    /** 
+     * Repaints the column of a date whose attendance has been replaced
+     * @param date Date of the replaced attendance
+     */
+    public void refreshDateColumn(Date date) {
+        int column = getDateColumn(date);
+        if (column != -1)
+            model.dateColumnChanged(column);
+    }
+
+    
+    /** 
+     * Checks whether a column exists in the table for a date
+     * @param date Date to be checked
      */
-    public void getColumns() {
-        for (int i = 0; i < colModel.getColumnCount(); i++)
-            System.out.println(colModel.getColumn(i).getHeaderValue());
+    public boolean hasDateColumn(Date date) {
+        return dateColumns.containsKey(SessionDate.epochDay(date));
     }
 
     
     /** 
-     * Checks whether a column exists in the table
-     * @param colName Column name to be checked
+     * Returns the model column index for a date, or -1 when the date is not shown
+     * @param date Date to be looked up
      */
-    public boolean hasColumn(String colName) {
-        for (int i = 0; i < colModel.getColumnCount(); i++)
-            if (colName.equals(colModel.getColumn(i).getHeaderValue()))
-                return true;
-        return false;
+    public int getDateColumn(Date date) {
+        Integer column = dateColumns.get(SessionDate.epochDay(date));
+        return column == null ? -1 : column;
     }
 }